@@ -1,6 +1,8 @@
 /**
  * This file contains two implementations of binary search (recursive and iterative). 
  * 
+ * Searches are recorded by OperationStats (no-op unless operation counting is switched on).
+ * 
  * Time complexity: 	O(log n)
  * Space complexity: 	O(1)
  * 		n -> size of array
@@ -11,7 +13,25 @@
 
 package com.mgazdovic.algo.searching;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import com.mgazdovic.algo.stats.OperationStats;
+import com.mgazdovic.algo.vector.VectorOps;
+
 public class BinarySearch {
+	
+	// number of binary searches running in lockstep (batch search of unsorted keys)
+	private static final int INTERLEAVED_SEARCHES = 8;
+	
+	// batch size searched sequentially by a single thread (parallel batch search)
+	private static final int PARALLEL_BATCH_THRESHOLD = 1 << 14;
+	
+	// size of last level of primitive lower bound search which is compared as a single block (only with SIMD kernels)
+	private static final int LAST_LEVEL_BLOCK = VectorOps.ENABLED ? 64 : 0;
 
 	/** Performs binary search algorithm on a sorted array (iterative). 
 	  * @param items sorted array in which item of interest is searched for.
@@ -19,6 +39,19 @@ public class BinarySearch {
 	  * @return index of (any) found element within input (-1 if not found). 
 	  */
 	public static <T extends Comparable<T>> int find(T[] items, T item) {
+		return find(items, item, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs binary search algorithm on an array sorted by given comparator (iterative). 
+	  * @param items sorted array in which item of interest is searched for.
+	  * @param item that is being searched for. 
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of (any) found element within input (-1 if not found). 
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int find(T[] items, T item, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
 		// check if array contains any elements
 		if (items == null || items.length == 0) return -1;
 		
@@ -30,12 +63,132 @@ public class BinarySearch {
 		while (from < to) {
 			// middle: (from + to) / 2 -> (bit shift is faster and also avoids overflow)
 			current = (from+to)>>>1; 
+			int cmp = comparator.compare(items[current], item);
+			
+			if (cmp == 0) {
+				// found at current position
+				OperationStats.recordSearches(1, 0);
+				return current;
+			}
+			if (cmp > 0) {
+				// next -> [from, current>
+				to = current;
+			}
+			else {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+		}
+		
+		// not found
+		OperationStats.recordSearches(1, 0);
+		return -1;
+	}
+	
+	/** Performs binary search algorithm on a sorted primitive array (iterative, no boxing).
+	  * @param items sorted array in which item of interest is searched for.
+	  * @param item that is being searched for. 
+	  * @return index of (any) found element within input (-1 if not found). 
+	  */
+	public static int find(int[] items, int item) {
+		// check if array contains any elements
+		if (items == null || items.length == 0) return -1;
+		
+		// range [from, to>
+		int from = 0;
+		int to = items.length;
+		
+		int current, comparisons = 0;
+		while (from < to) {
+			comparisons++;
+			// middle: (from + to) / 2 -> (bit shift is faster and also avoids overflow)
+			current = (from+to)>>>1; 
+			
+			if (items[current] == item) {
+				// found at current position
+				OperationStats.recordSearches(1, comparisons);
+				return current;
+			}
+			if (items[current] > item) {
+				// next -> [from, current>
+				to = current;
+			}
+			else {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+		}
+		
+		// not found
+		OperationStats.recordSearches(1, comparisons);
+		return -1;
+	}
+
+	/** Performs binary search algorithm on a sorted primitive array (iterative, no boxing).
+	  * @param items sorted array in which item of interest is searched for.
+	  * @param item that is being searched for. 
+	  * @return index of (any) found element within input (-1 if not found). 
+	  */
+	public static int find(long[] items, long item) {
+		// check if array contains any elements
+		if (items == null || items.length == 0) return -1;
+		
+		// range [from, to>
+		int from = 0;
+		int to = items.length;
+		
+		int current, comparisons = 0;
+		while (from < to) {
+			comparisons++;
+			// middle: (from + to) / 2 -> (bit shift is faster and also avoids overflow)
+			current = (from+to)>>>1; 
+			
+			if (items[current] == item) {
+				// found at current position
+				OperationStats.recordSearches(1, comparisons);
+				return current;
+			}
+			if (items[current] > item) {
+				// next -> [from, current>
+				to = current;
+			}
+			else {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+		}
+		
+		// not found
+		OperationStats.recordSearches(1, comparisons);
+		return -1;
+	}
+
+	/** Performs binary search algorithm on a sorted primitive array (iterative, no boxing).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param items sorted array in which item of interest is searched for.
+	  * @param item that is being searched for. 
+	  * @return index of (any) found element within input (-1 if not found). 
+	  */
+	public static int find(double[] items, double item) {
+		// check if array contains any elements
+		if (items == null || items.length == 0) return -1;
+		
+		// range [from, to>
+		int from = 0;
+		int to = items.length;
+		
+		int current, comparisons = 0;
+		while (from < to) {
+			comparisons++;
+			// middle: (from + to) / 2 -> (bit shift is faster and also avoids overflow)
+			current = (from+to)>>>1; 
 			
-			if (items[current].compareTo(item) == 0) {
+			if (Double.compare(items[current], item) == 0) {
 				// found at current position
+				OperationStats.recordSearches(1, comparisons);
 				return current;
 			}
-			if (items[current].compareTo(item) > 0) {
+			if (Double.compare(items[current], item) > 0) {
 				// next -> [from, current>
 				to = current;
 			}
@@ -46,19 +199,950 @@ public class BinarySearch {
 		}
 		
 		// not found
+		OperationStats.recordSearches(1, comparisons);
 		return -1;
 	}
 	
+	/** Performs binary search algorithm on an array sorted by int key (iterative). 
+	  * Key is extracted only from probed elements (O(log n) key extractions).
+	  * @param items array sorted by key in which element with given key is searched for.
+	  * @param key that is being searched for. 
+	  * @param keyOf function extracting key from an element.
+	  * @return index of (any) element with given key within input (-1 if not found). 
+	  * @throws IllegalArgumentException if key function is null.
+	  */
+	public static <T> int findByIntKey(T[] items, int key, ToIntFunction<? super T> keyOf) {
+		if (keyOf == null) throw new IllegalArgumentException("Key function cannot be null");
+		// check if array contains any elements
+		if (items == null || items.length == 0) return -1;
+		
+		// range [from, to>
+		int from = 0;
+		int to = items.length;
+		
+		while (from < to) {
+			int current = (from+to)>>>1; 
+			int currentKey = keyOf.applyAsInt(items[current]);
+			
+			if (currentKey == key) {
+				// found at current position
+				return current;
+			}
+			if (currentKey > key) {
+				// next -> [from, current>
+				to = current;
+			}
+			else {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+		}
+		
+		// not found
+		return -1;
+	}
+
+	/** Performs binary search algorithm on an array sorted by long key (iterative). 
+	  * Key is extracted only from probed elements (O(log n) key extractions).
+	  * @param items array sorted by key in which element with given key is searched for.
+	  * @param key that is being searched for. 
+	  * @param keyOf function extracting key from an element.
+	  * @return index of (any) element with given key within input (-1 if not found). 
+	  * @throws IllegalArgumentException if key function is null.
+	  */
+	public static <T> int findByLongKey(T[] items, long key, ToLongFunction<? super T> keyOf) {
+		if (keyOf == null) throw new IllegalArgumentException("Key function cannot be null");
+		// check if array contains any elements
+		if (items == null || items.length == 0) return -1;
+		
+		// range [from, to>
+		int from = 0;
+		int to = items.length;
+		
+		while (from < to) {
+			int current = (from+to)>>>1; 
+			long currentKey = keyOf.applyAsLong(items[current]);
+			
+			if (currentKey == key) {
+				// found at current position
+				return current;
+			}
+			if (currentKey > key) {
+				// next -> [from, current>
+				to = current;
+			}
+			else {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+		}
+		
+		// not found
+		return -1;
+	}
+	
+	/** Performs binary search for a batch of keys on a sorted int array. 
+	  * Sorted (non-decreasing) batches use galloping search starting from the previous key's position, 
+	  * other batches run several interleaved searches to overlap memory latency. 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array (at least as long as keys) which receives the found index of each key (-1 if not found).
+	  * @throws IllegalArgumentException if keys or result are null or result is too short.
+	  */
+	public static void findAll(int[] items, int[] keys, int[] result) {
+		batchValidOrThrow(keys == null ? -1 : keys.length, result);
+		findAll(items, keys, result, 0, keys.length);
+	}
+	
+	/** Performs binary search for a batch of keys on a sorted int array, splitting large batches across threads (fork-join). 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array (at least as long as keys) which receives the found index of each key (-1 if not found).
+	  * @throws IllegalArgumentException if keys or result are null or result is too short.
+	  */
+	public static void parallelFindAll(int[] items, int[] keys, int[] result) {
+		batchValidOrThrow(keys == null ? -1 : keys.length, result);
+		
+		// split batch into chunks, each chunk is searched sequentially
+		int chunks = (keys.length + PARALLEL_BATCH_THRESHOLD - 1) / PARALLEL_BATCH_THRESHOLD;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int from = chunk * PARALLEL_BATCH_THRESHOLD;
+			findAll(items, keys, result, from, Math.min(from + PARALLEL_BATCH_THRESHOLD, keys.length));
+		});
+	}
+	
+	/** Searches for keys [from, to> of a batch (galloping for sorted keys, interleaved otherwise). 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAll(int[] items, int[] keys, int[] result, int from, int to) {
+		// nothing to search in
+		if (items == null || items.length == 0) {
+			Arrays.fill(result, from, to, -1);
+			return;
+		}
+		
+		// check if keys are sorted (non-decreasing)
+		boolean sorted = true;
+		for (int i = from + 1; i < to && sorted; i++) {
+			sorted = keys[i - 1] <= keys[i];
+		}
+		
+		if (sorted) {
+			findAllSorted(items, keys, result, from, to);
+		}
+		else {
+			findAllInterleaved(items, keys, result, from, to);
+		}
+	}
+	
+	/** Searches for sorted keys [from, to> using galloping search (each search starts where the previous one ended). 
+	  * @param items non-empty sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for (sorted within [from, to>).
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAllSorted(int[] items, int[] keys, int[] result, int from, int to) {
+		final int n = items.length;
+		
+		// lower bound of previous key (all items before it are less than any remaining key)
+		int low = 0;
+		for (int i = from; i < to; i++) {
+			int key = keys[i];
+			
+			// gallop -> double the step until item at low + step is not less than key
+			int step = 1;
+			while (step < n - low && items[low + step - 1] < key) {
+				step <<= 1;
+			}
+			
+			// range [low + step/2, min(low + step, n)] contains lower bound -> binary search it
+			low = lowerBound(items, key, low + (step >>> 1), low + Math.min(step, n - low));
+			
+			// found -> same index as find (equal range [low, end> replayed through find's midpoints)
+			result[i] = low < n && items[low] == key ? findPosition(low, equalRangeEnd(items, key, low), n) : -1;
+		}
+	}
+	
+	/** Finds end of range of elements equal to key which starts at given index (galloping from its start). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for (equal to element at from).
+	  * @param from first index of equal range.
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	private static int equalRangeEnd(int[] items, int key, int from) {
+		final int n = items.length;
+		int comparisons = 0;
+		
+		// gallop -> double the step while item at from + step is still equal to key
+		int step = 1;
+		while (step < n - from && items[from + step] == key) {
+			comparisons++;
+			step <<= 1;
+		}
+		
+		// range [from + step/2 + 1, min(from + step, n)] contains the end -> binary search it
+		int low = from + (step >>> 1) + 1, high = from + Math.min(step, n - from);
+		while (low < high) {
+			int current = (low+high)>>>1;
+			comparisons++;
+			if (items[current] == key) {
+				low = current + 1;
+			}
+			else {
+				high = current;
+			}
+		}
+		OperationStats.recordSearches(0, comparisons);
+		return low;
+	}
+	
+	/** Searches for keys [from, to> running several binary searches in lockstep (independent loads overlap in memory). 
+	  * Each search follows the exact same steps as {@link #find(int[], int)}.
+	  * @param items non-empty sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAllInterleaved(int[] items, int[] keys, int[] result, int from, int to) {
+		// ranges [low, high> of searches in flight
+		int[] low = new int[INTERLEAVED_SEARCHES];
+		int[] high = new int[INTERLEAVED_SEARCHES];
+		long comparisons = 0;
+		
+		for (int first = from; first < to; first += INTERLEAVED_SEARCHES) {
+			int searches = Math.min(INTERLEAVED_SEARCHES, to - first);
+			for (int s = 0; s < searches; s++) {
+				low[s] = 0;
+				high[s] = items.length;
+				result[first + s] = -1;
+			}
+			
+			// advance each unfinished search by one step until all are done
+			boolean active = true;
+			while (active) {
+				active = false;
+				for (int s = 0; s < searches; s++) {
+					if (low[s] >= high[s]) continue;
+					
+					int current = (low[s]+high[s])>>>1;
+					comparisons++;
+					int key = keys[first + s];
+					if (items[current] == key) {
+						// found -> finish this search
+						result[first + s] = current;
+						high[s] = low[s];
+						continue;
+					}
+					if (items[current] > key) {
+						high[s] = current;
+					}
+					else {
+						low[s] = current + 1;
+					}
+					active |= low[s] < high[s];
+				}
+			}
+		}
+		OperationStats.recordSearches(to - from, comparisons);
+	}
+
+	/** Performs binary search for a batch of keys on a sorted long array. 
+	  * Sorted (non-decreasing) batches use galloping search starting from the previous key's position, 
+	  * other batches run several interleaved searches to overlap memory latency. 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array (at least as long as keys) which receives the found index of each key (-1 if not found).
+	  * @throws IllegalArgumentException if keys or result are null or result is too short.
+	  */
+	public static void findAll(long[] items, long[] keys, int[] result) {
+		batchValidOrThrow(keys == null ? -1 : keys.length, result);
+		findAll(items, keys, result, 0, keys.length);
+	}
+	
+	/** Performs binary search for a batch of keys on a sorted long array, splitting large batches across threads (fork-join). 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array (at least as long as keys) which receives the found index of each key (-1 if not found).
+	  * @throws IllegalArgumentException if keys or result are null or result is too short.
+	  */
+	public static void parallelFindAll(long[] items, long[] keys, int[] result) {
+		batchValidOrThrow(keys == null ? -1 : keys.length, result);
+		
+		// split batch into chunks, each chunk is searched sequentially
+		int chunks = (keys.length + PARALLEL_BATCH_THRESHOLD - 1) / PARALLEL_BATCH_THRESHOLD;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int from = chunk * PARALLEL_BATCH_THRESHOLD;
+			findAll(items, keys, result, from, Math.min(from + PARALLEL_BATCH_THRESHOLD, keys.length));
+		});
+	}
+	
+	/** Searches for keys [from, to> of a batch (galloping for sorted keys, interleaved otherwise). 
+	  * @param items sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAll(long[] items, long[] keys, int[] result, int from, int to) {
+		// nothing to search in
+		if (items == null || items.length == 0) {
+			Arrays.fill(result, from, to, -1);
+			return;
+		}
+		
+		// check if keys are sorted (non-decreasing)
+		boolean sorted = true;
+		for (int i = from + 1; i < to && sorted; i++) {
+			sorted = keys[i - 1] <= keys[i];
+		}
+		
+		if (sorted) {
+			findAllSorted(items, keys, result, from, to);
+		}
+		else {
+			findAllInterleaved(items, keys, result, from, to);
+		}
+	}
+	
+	/** Searches for sorted keys [from, to> using galloping search (each search starts where the previous one ended). 
+	  * @param items non-empty sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for (sorted within [from, to>).
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAllSorted(long[] items, long[] keys, int[] result, int from, int to) {
+		final int n = items.length;
+		
+		// lower bound of previous key (all items before it are less than any remaining key)
+		int low = 0;
+		for (int i = from; i < to; i++) {
+			long key = keys[i];
+			
+			// gallop -> double the step until item at low + step is not less than key
+			int step = 1;
+			while (step < n - low && items[low + step - 1] < key) {
+				step <<= 1;
+			}
+			
+			// range [low + step/2, min(low + step, n)] contains lower bound -> binary search it
+			low = lowerBound(items, key, low + (step >>> 1), low + Math.min(step, n - low));
+			
+			// found -> same index as find (equal range [low, end> replayed through find's midpoints)
+			result[i] = low < n && items[low] == key ? findPosition(low, equalRangeEnd(items, key, low), n) : -1;
+		}
+	}
+	
+	/** Finds end of range of elements equal to key which starts at given index (galloping from its start). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for (equal to element at from).
+	  * @param from first index of equal range.
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	private static int equalRangeEnd(long[] items, long key, int from) {
+		final int n = items.length;
+		int comparisons = 0;
+		
+		// gallop -> double the step while item at from + step is still equal to key
+		int step = 1;
+		while (step < n - from && items[from + step] == key) {
+			comparisons++;
+			step <<= 1;
+		}
+		
+		// range [from + step/2 + 1, min(from + step, n)] contains the end -> binary search it
+		int low = from + (step >>> 1) + 1, high = from + Math.min(step, n - from);
+		while (low < high) {
+			int current = (low+high)>>>1;
+			comparisons++;
+			if (items[current] == key) {
+				low = current + 1;
+			}
+			else {
+				high = current;
+			}
+		}
+		OperationStats.recordSearches(0, comparisons);
+		return low;
+	}
+	
+	/** Searches for keys [from, to> running several binary searches in lockstep (independent loads overlap in memory). 
+	  * Each search follows the exact same steps as {@link #find(long[], long)}.
+	  * @param items non-empty sorted array in which keys are searched for.
+	  * @param keys batch of keys that are being searched for.
+	  * @param result array which receives the found index of each key.
+	  * @param from starting index within batch (inclusive).
+	  * @param to ending index within batch (exclusive).
+	  */
+	private static void findAllInterleaved(long[] items, long[] keys, int[] result, int from, int to) {
+		// ranges [low, high> of searches in flight
+		int[] low = new int[INTERLEAVED_SEARCHES];
+		int[] high = new int[INTERLEAVED_SEARCHES];
+		long comparisons = 0;
+		
+		for (int first = from; first < to; first += INTERLEAVED_SEARCHES) {
+			int searches = Math.min(INTERLEAVED_SEARCHES, to - first);
+			for (int s = 0; s < searches; s++) {
+				low[s] = 0;
+				high[s] = items.length;
+				result[first + s] = -1;
+			}
+			
+			// advance each unfinished search by one step until all are done
+			boolean active = true;
+			while (active) {
+				active = false;
+				for (int s = 0; s < searches; s++) {
+					if (low[s] >= high[s]) continue;
+					
+					int current = (low[s]+high[s])>>>1;
+					comparisons++;
+					long key = keys[first + s];
+					if (items[current] == key) {
+						// found -> finish this search
+						result[first + s] = current;
+						high[s] = low[s];
+						continue;
+					}
+					if (items[current] > key) {
+						high[s] = current;
+					}
+					else {
+						low[s] = current + 1;
+					}
+					active |= low[s] < high[s];
+				}
+			}
+		}
+		OperationStats.recordSearches(to - from, comparisons);
+	}
+	
+	/** Finds index of first element which is not less than key (lower bound). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for. 
+	  * @return index of first element not less than key (items length if there is none).
+	  */
+	public static <T extends Comparable<T>> int lowerBound(T[] items, T key) {
+		return lowerBound(items, key, Comparator.<T>naturalOrder());
+	}
+	
+	/** Finds index of first element which is greater than key (upper bound). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for. 
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	public static <T extends Comparable<T>> int upperBound(T[] items, T key) {
+		return upperBound(items, key, Comparator.<T>naturalOrder());
+	}
+	
+	/** Finds range [from, to> of elements equal to key. 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for. 
+	  * @return two element array {from, to} (empty range at lower bound position if key is not found).
+	  */
+	public static <T extends Comparable<T>> int[] equalRange(T[] items, T key) {
+		return equalRange(items, key, Comparator.<T>naturalOrder());
+	}
+	
+	/** Counts elements within key range [fromKey, toKey>. 
+	  * @param items sorted array which is searched.
+	  * @param fromKey lowest key of range (inclusive).
+	  * @param toKey highest key of range (exclusive). 
+	  * @return number of elements x such that fromKey <= x < toKey (0 if toKey is not greater than fromKey).
+	  */
+	public static <T extends Comparable<T>> int countInRange(T[] items, T fromKey, T toKey) {
+		return countInRange(items, fromKey, toKey, Comparator.<T>naturalOrder());
+	}
+
+	/** Finds index of first element which is not less than key (lower bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of first element not less than key (items length if there is none).
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int lowerBound(T[] items, T key, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		if (items == null) return 0;
+		return lowerBound(items, key, 0, items.length, comparator);
+	}
+	
+	/** Finds index of first element which is greater than key (upper bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of first element greater than key (items length if there is none).
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int upperBound(T[] items, T key, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		if (items == null) return 0;
+		return upperBound(items, key, 0, items.length, comparator);
+	}
+	
+	/** Finds range [from, to> of elements equal to key.
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param comparator comparator by which items are sorted.
+	  * @return two element array {from, to} (empty range at lower bound position if key is not found).
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int[] equalRange(T[] items, T key, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		if (items == null) return new int[] {0, 0};
+		
+		int from = lowerBound(items, key, 0, items.length, comparator);
+		// upper bound can only be found in [from, length>
+		int to = upperBound(items, key, from, items.length, comparator);
+		return new int[] {from, to};
+	}
+	
+	/** Counts elements within key range [fromKey, toKey>.
+	  * @param items sorted array which is searched.
+	  * @param fromKey lowest key of range (inclusive).
+	  * @param toKey highest key of range (exclusive).
+	  * @param comparator comparator by which items are sorted.
+	  * @return number of elements x such that fromKey <= x < toKey (0 if toKey is not greater than fromKey).
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int countInRange(T[] items, T fromKey, T toKey, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		if (items == null) return 0;
+		
+		int from = lowerBound(items, fromKey, 0, items.length, comparator);
+		// end of range can only be found in [from, length>
+		int to = lowerBound(items, toKey, from, items.length, comparator);
+		return to - from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is not less than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of first element not less than key (to if there is none).
+	  */
+	private static <T> int lowerBound(T[] items, T key, int from, int to, Comparator<? super T> comparator) {
+		while (from < to) {
+			int current = (from+to)>>>1;
+			if (comparator.compare(items[current], key) < 0) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, 0);
+		return from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is greater than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of first element greater than key (to if there is none).
+	  */
+	private static <T> int upperBound(T[] items, T key, int from, int to, Comparator<? super T> comparator) {
+		while (from < to) {
+			int current = (from+to)>>>1;
+			if (comparator.compare(items[current], key) <= 0) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, 0);
+		return from;
+	}
+
+	/** Finds index of first element which is not less than key (lower bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element not less than key (items length if there is none).
+	  */
+	public static int lowerBound(int[] items, int key) {
+		if (items == null) return 0;
+		return lowerBound(items, key, 0, items.length);
+	}
+	
+	/** Finds index of first element which is greater than key (upper bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	public static int upperBound(int[] items, int key) {
+		if (items == null) return 0;
+		return upperBound(items, key, 0, items.length);
+	}
+	
+	/** Finds range [from, to> of elements equal to key.
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return two element array {from, to} (empty range at lower bound position if key is not found).
+	  */
+	public static int[] equalRange(int[] items, int key) {
+		if (items == null) return new int[] {0, 0};
+		
+		int from = lowerBound(items, key, 0, items.length);
+		// upper bound can only be found in [from, length>
+		int to = upperBound(items, key, from, items.length);
+		return new int[] {from, to};
+	}
+	
+	/** Counts elements within key range [fromKey, toKey>.
+	  * @param items sorted array which is searched.
+	  * @param fromKey lowest key of range (inclusive).
+	  * @param toKey highest key of range (exclusive).
+	  * @return number of elements x such that fromKey <= x < toKey (0 if toKey is not greater than fromKey).
+	  */
+	public static int countInRange(int[] items, int fromKey, int toKey) {
+		if (items == null) return 0;
+		
+		int from = lowerBound(items, fromKey, 0, items.length);
+		// end of range can only be found in [from, length>
+		int to = lowerBound(items, toKey, from, items.length);
+		return to - from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is not less than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element not less than key (to if there is none).
+	  */
+	private static int lowerBound(int[] items, int key, int from, int to) {
+		int comparisons = 0;
+		while (to - from > LAST_LEVEL_BLOCK) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (items[current] < key) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		// last level -> count elements less than key in the remaining block at once
+		if (from < to) {
+			comparisons += to - from;
+			from += VectorOps.countLess(items, from, to, key);
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is greater than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element greater than key (to if there is none).
+	  */
+	private static int upperBound(int[] items, int key, int from, int to) {
+		int comparisons = 0;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (items[current] <= key) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+
+	/** Finds index of first element which is not less than key (lower bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element not less than key (items length if there is none).
+	  */
+	public static int lowerBound(long[] items, long key) {
+		if (items == null) return 0;
+		return lowerBound(items, key, 0, items.length);
+	}
+	
+	/** Finds index of first element which is greater than key (upper bound).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	public static int upperBound(long[] items, long key) {
+		if (items == null) return 0;
+		return upperBound(items, key, 0, items.length);
+	}
+	
+	/** Finds range [from, to> of elements equal to key.
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return two element array {from, to} (empty range at lower bound position if key is not found).
+	  */
+	public static int[] equalRange(long[] items, long key) {
+		if (items == null) return new int[] {0, 0};
+		
+		int from = lowerBound(items, key, 0, items.length);
+		// upper bound can only be found in [from, length>
+		int to = upperBound(items, key, from, items.length);
+		return new int[] {from, to};
+	}
+	
+	/** Counts elements within key range [fromKey, toKey>.
+	  * @param items sorted array which is searched.
+	  * @param fromKey lowest key of range (inclusive).
+	  * @param toKey highest key of range (exclusive).
+	  * @return number of elements x such that fromKey <= x < toKey (0 if toKey is not greater than fromKey).
+	  */
+	public static int countInRange(long[] items, long fromKey, long toKey) {
+		if (items == null) return 0;
+		
+		int from = lowerBound(items, fromKey, 0, items.length);
+		// end of range can only be found in [from, length>
+		int to = lowerBound(items, toKey, from, items.length);
+		return to - from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is not less than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element not less than key (to if there is none).
+	  */
+	private static int lowerBound(long[] items, long key, int from, int to) {
+		int comparisons = 0;
+		while (to - from > LAST_LEVEL_BLOCK) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (items[current] < key) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		// last level -> count elements less than key in the remaining block at once
+		if (from < to) {
+			comparisons += to - from;
+			from += VectorOps.countLess(items, from, to, key);
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is greater than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element greater than key (to if there is none).
+	  */
+	private static int upperBound(long[] items, long key, int from, int to) {
+		int comparisons = 0;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (items[current] <= key) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+
+	/** Finds index of first element which is not less than key (lower bound).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element not less than key (items length if there is none).
+	  */
+	public static int lowerBound(double[] items, double key) {
+		if (items == null) return 0;
+		return lowerBound(items, key, 0, items.length);
+	}
+	
+	/** Finds index of first element which is greater than key (upper bound).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return index of first element greater than key (items length if there is none).
+	  */
+	public static int upperBound(double[] items, double key) {
+		if (items == null) return 0;
+		return upperBound(items, key, 0, items.length);
+	}
+	
+	/** Finds range [from, to> of elements equal to key.
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @return two element array {from, to} (empty range at lower bound position if key is not found).
+	  */
+	public static int[] equalRange(double[] items, double key) {
+		if (items == null) return new int[] {0, 0};
+		
+		int from = lowerBound(items, key, 0, items.length);
+		// upper bound can only be found in [from, length>
+		int to = upperBound(items, key, from, items.length);
+		return new int[] {from, to};
+	}
+	
+	/** Counts elements within key range [fromKey, toKey>.
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param items sorted array which is searched.
+	  * @param fromKey lowest key of range (inclusive).
+	  * @param toKey highest key of range (exclusive).
+	  * @return number of elements x such that fromKey <= x < toKey (0 if toKey is not greater than fromKey).
+	  */
+	public static int countInRange(double[] items, double fromKey, double toKey) {
+		if (items == null) return 0;
+		
+		int from = lowerBound(items, fromKey, 0, items.length);
+		// end of range can only be found in [from, length>
+		int to = lowerBound(items, toKey, from, items.length);
+		return to - from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is not less than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element not less than key (to if there is none).
+	  */
+	private static int lowerBound(double[] items, double key, int from, int to) {
+		int comparisons = 0;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (Double.compare(items[current], key) < 0) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+	
+	/** Finds index of first element within sorted range [from, to> which is greater than key (iterative). 
+	  * @param items sorted array which is searched.
+	  * @param key that is being searched for.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of first element greater than key (to if there is none).
+	  */
+	private static int upperBound(double[] items, double key, int from, int to) {
+		int comparisons = 0;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			comparisons++;
+			if (Double.compare(items[current], key) <= 0) {
+				// next -> [current + 1, to>
+				from = current + 1;
+			}
+			else {
+				// next -> [from, current>
+				to = current;
+			}
+		}
+		OperationStats.recordSearches(1, comparisons);
+		return from;
+	}
+	
+	/** Validates batch search arguments. 
+	  * @param keysLength number of keys in batch (-1 if keys are null).
+	  * @param result array which receives found indexes.
+	  * @throws IllegalArgumentException if keys or result are null or result is too short.
+	  */
+	private static void batchValidOrThrow(int keysLength, int[] result) {
+		if (keysLength < 0) throw new IllegalArgumentException("Keys cannot be null");
+		if (result == null || result.length < keysLength) throw new IllegalArgumentException("Result array must be at least as long as keys");
+	}
+	
+	/** Replays midpoint sequence of binary search (find) over [0, length> for a key whose equal range is [lower, upper>. 
+	  * Only compares indexes (no element is read), so a lower / upper bound search can return the same index as find.
+	  * @param lower index of first element equal to key.
+	  * @param upper index of first element greater than key (lower < upper).
+	  * @param length size of searched array.
+	  * @return index which find returns for the key.
+	  */
+	static int findPosition(int lower, int upper, int length) {
+		int from = 0, to = length;
+		while (true) {
+			int current = (from+to)>>>1;
+			if (current < lower) {
+				// element less than key -> next [current + 1, to>
+				from = current + 1;
+			}
+			else if (current >= upper) {
+				// element greater than key -> next [from, current>
+				to = current;
+			}
+			else {
+				return current;
+			}
+		}
+	}
+	
 	/** Performs binary search algorithm on a sorted array (recursive). 
 	  * @param items sorted array in which item of interest is searched for.
 	  * @param item that is being searched for. 
 	  * @return index of (any) found element within input (-1 if not found). 
 	  */
 	public static <T extends Comparable<T>> int findR(T[] items, T item) {
+		return findR(items, item, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs binary search algorithm on an array sorted by given comparator (recursive). 
+	  * @param items sorted array in which item of interest is searched for.
+	  * @param item that is being searched for. 
+	  * @param comparator comparator by which items are sorted.
+	  * @return index of (any) found element within input (-1 if not found). 
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public static <T> int findR(T[] items, T item, Comparator<? super T> comparator) {
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
 		// check if array contains any elements
 		if (items == null || items.length == 0) return -1;
 		
-		return findR(items, item, 0, items.length);
+		OperationStats.recordSearches(1, 0);
+		return findR(items, item, 0, items.length, comparator);
 	}
 	
 	/** Recursive method for binary search algorithm on a sorted array. 
@@ -66,26 +1150,28 @@ public class BinarySearch {
 	  * @param item that is being searched for. 
 	  * @param from starting index (inclusive).
 	  * @param to ending index (exclusive).
+	  * @param comparator comparator by which items are sorted.
 	  * @return index of (any) found element within input (-1 if not found). 
 	  */
-	private static <T extends Comparable<T>> int findR(T[] items, T item, int from, int to) {
+	private static <T> int findR(T[] items, T item, int from, int to, Comparator<? super T> comparator) {
 		// not found
 		if (from >= to) return -1;
 		
 		// middle: (from + to) / 2 -> (bit shift is faster and also avoids overflow)
 		int current = (from+to)>>>1;
+		int cmp = comparator.compare(items[current], item);
 		
-		if (items[current].compareTo(item) == 0) {
+		if (cmp == 0) {
 			// found at current position
 			return current;
 		}
-		if (items[current].compareTo(item) > 0) {
+		if (cmp > 0) {
 			// next -> [from, current>
-			return findR(items, item, from, current);
+			return findR(items, item, from, current, comparator);
 		}
 		else {
 			// next -> [current + 1, to>
-			return findR(items, item, current + 1, to);
+			return findR(items, item, current + 1, to, comparator);
 		}
 	}
 }
@@ -0,0 +1,233 @@
+/**
+ * This file contains a concurrent read-optimized sorted set index (many readers, occasional writers).
+ * Contents are an immutable snapshot of a large sorted base array and a small sorted delta array, published by a volatile field.
+ * Lookups read the snapshot once and binary search both arrays (BinarySearch) -> they never block and never see a partial update.
+ * Writers are serialized by a lock: a single insert publishes a new copy of the delta array (cheap, delta is small) and
+ * once delta reaches its capacity it is merged into a fresh base array (linear merge) -> base rebuild cost is amortized over inserts.
+ * Batches of keys are sorted (MergeSortBottomUp) and merged into base at once.
+ *
+ * Time complexity: 	O(log n) lookup, O(d + n/d) amortized insert, O(n + m log m) batch insert
+ * Space complexity: 	O(n)
+ * 		n -> number of keys
+ * 		d -> delta capacity
+ * 		m -> size of inserted batch
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.searching;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mgazdovic.algo.sorting.MergeSortBottomUp;
+
+public class ConcurrentSortedIndex<T> {
+
+	// default maximum number of keys in delta array (larger delta -> cheaper inserts, slower lookups)
+	public static final int DEFAULT_DELTA_CAPACITY = 256;
+
+	// comparator defining key order
+	private final Comparator<? super T> comparator;
+	// maximum number of keys in delta array
+	private final int deltaCapacity;
+	// serializes writers (readers never lock)
+	private final Object writeLock = new Object();
+	// current contents (replaced as a whole on every write)
+	private volatile Snapshot snapshot = new Snapshot(new Object[0], new Object[0]);
+
+	/** Creates empty index ordered by given comparator using default delta capacity.
+	  * @param comparator comparator defining key order.
+	  * @throws IllegalArgumentException if comparator is null.
+	  */
+	public ConcurrentSortedIndex(Comparator<? super T> comparator) {
+		this(comparator, DEFAULT_DELTA_CAPACITY);
+	}
+
+	/** Creates empty index ordered by given comparator.
+	  * @param comparator comparator defining key order.
+	  * @param deltaCapacity maximum number of keys inserted one by one before they are merged into base array.
+	  * @throws IllegalArgumentException if comparator is null or delta capacity is not positive.
+	  */
+	public ConcurrentSortedIndex(Comparator<? super T> comparator, int deltaCapacity) {
+		// input validation
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		if (deltaCapacity < 1) throw new IllegalArgumentException("Delta capacity must be a positive number");
+
+		this.comparator = comparator;
+		this.deltaCapacity = deltaCapacity;
+	}
+
+	/** Creates empty index using natural ordering.
+	  * @return empty index.
+	  */
+	public static <T extends Comparable<T>> ConcurrentSortedIndex<T> naturalOrder() {
+		return new ConcurrentSortedIndex<>(Comparator.<T>naturalOrder());
+	}
+
+	/** Checks if index contains given key (lock-free).
+	  * @param key that is being searched for.
+	  * @return true if key is in index; false otherwise.
+	  */
+	public boolean contains(T key) {
+		Snapshot current = snapshot;
+		return BinarySearch.find(current.<T>base(), key, comparator) >= 0
+				|| BinarySearch.find(current.<T>delta(), key, comparator) >= 0;
+	}
+
+	/** Finds smallest key which is greater than or equal to given key (lock-free).
+	  * @param key that is being searched for.
+	  * @return smallest key not less than given key (null if there is none).
+	  */
+	public T ceiling(T key) {
+		Snapshot current = snapshot;
+		T[] base = current.base(), delta = current.delta();
+		int i = BinarySearch.lowerBound(base, key, comparator);
+		int j = BinarySearch.lowerBound(delta, key, comparator);
+		if (i == base.length) return j == delta.length ? null : delta[j];
+		if (j == delta.length) return base[i];
+		return comparator.compare(base[i], delta[j]) <= 0 ? base[i] : delta[j];
+	}
+
+	/** @return number of keys in index. */
+	public int size() {
+		Snapshot current = snapshot;
+		return current.base.length + current.delta.length;
+	}
+
+	/** Returns all keys in ascending order (consistent snapshot).
+	  * @return unmodifiable list of keys.
+	  */
+	public List<T> toList() {
+		Snapshot current = snapshot;
+		return Collections.unmodifiableList(Arrays.asList(current.<T>merged(comparator)));
+	}
+
+	/** Inserts key into index (blocks only other writers).
+	  * @param key inserted key (not null).
+	  * @return true if key was inserted; false if index already contained it.
+	  * @throws IllegalArgumentException if key is null.
+	  */
+	public boolean add(T key) {
+		// input validation
+		if (key == null) throw new IllegalArgumentException("Key cannot be null");
+
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			T[] base = current.base(), delta = current.delta();
+			if (BinarySearch.find(base, key, comparator) >= 0) return false;
+			int position = BinarySearch.lowerBound(delta, key, comparator);
+			if (position < delta.length && comparator.compare(delta[position], key) == 0) return false;
+
+			// copy of delta with inserted key
+			Object[] inserted = new Object[delta.length + 1];
+			System.arraycopy(delta, 0, inserted, 0, position);
+			inserted[position] = key;
+			System.arraycopy(delta, position, inserted, position + 1, delta.length - position);
+
+			// delta full -> merge it into fresh base
+			snapshot = inserted.length < deltaCapacity
+					? new Snapshot(base, inserted)
+					: new Snapshot(merge(base, inserted, comparator), new Object[0]);
+			return true;
+		}
+	}
+
+	/** Inserts batch of keys into index by a single merge with base array (blocks only other writers).
+	  * @param keys inserted keys (not null, may contain duplicates or keys already in index; not modified).
+	  * @return number of inserted keys.
+	  * @throws IllegalArgumentException if keys array or any key is null.
+	  */
+	public int addAll(T[] keys) {
+		// input validation
+		if (keys == null) throw new IllegalArgumentException("Keys cannot be null");
+		for (T key : keys) {
+			if (key == null) throw new IllegalArgumentException("Key cannot be null");
+		}
+		if (keys.length == 0) return 0;
+
+		// sort batch, keep first occurrence of each key
+		T[] batch = keys.clone();
+		MergeSortBottomUp.sort(batch, comparator);
+
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			T[] merged = current.merged(comparator);
+
+			// drop duplicates and keys which are already in index
+			int size = 0;
+			for (int i = 0; i < batch.length; i++) {
+				if (size > 0 && comparator.compare(batch[size - 1], batch[i]) == 0) continue;
+				if (BinarySearch.find(merged, batch[i], comparator) >= 0) continue;
+				batch[size++] = batch[i];
+			}
+			if (size == 0) return 0;
+
+			snapshot = new Snapshot(merge(merged, Arrays.copyOf(batch, size), comparator), new Object[0]);
+			return size;
+		}
+	}
+
+	/** Merges pending delta into base array now (e.g. before a read-heavy phase). */
+	public void compact() {
+		synchronized (writeLock) {
+			Snapshot current = snapshot;
+			if (current.delta.length == 0) return;
+			snapshot = new Snapshot(current.merged(comparator), new Object[0]);
+		}
+	}
+
+	/** Merges two sorted arrays of distinct keys into a new sorted array (arrays are not modified).
+	  * @param first first sorted array.
+	  * @param second second sorted array.
+	  * @param comparator comparator defining key order.
+	  * @return merged array.
+	  */
+	@SuppressWarnings("unchecked")
+	private static <T> Object[] merge(Object[] first, Object[] second, Comparator<? super T> comparator) {
+		Object[] merged = new Object[first.length + second.length];
+		int i = 0, j = 0, k = 0;
+		while (i < first.length && j < second.length) {
+			// take smaller key
+			if (comparator.compare((T) first[i], (T) second[j]) <= 0) {
+				merged[k++] = first[i++];
+			}
+			else {
+				merged[k++] = second[j++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(first, i, merged, k, first.length - i);
+		System.arraycopy(second, j, merged, k + first.length - i, second.length - j);
+		return merged;
+	}
+
+	// Immutable contents of index: sorted base array and small sorted delta array (disjoint).
+	private static final class Snapshot {
+		final Object[] base, delta;
+
+		Snapshot(Object[] base, Object[] delta) {
+			this.base = base;
+			this.delta = delta;
+		}
+
+		// arrays are only ever read as T[] (erased to Object[])
+		@SuppressWarnings("unchecked")
+		<T> T[] base() {
+			return (T[]) base;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T[] delta() {
+			return (T[]) delta;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T[] merged(Comparator<? super T> comparator) {
+			return (T[]) (delta.length == 0 ? base : merge(base, delta, comparator));
+		}
+	}
+}
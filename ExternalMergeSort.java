@@ -0,0 +1,344 @@
+/**
+ * This file contains an implementation of external merge sort for files of fixed-size binary records which do not fit into memory.
+ * Input file is read sequentially through a buffered file channel in runs of given number of records, each run is decoded,
+ * sorted in memory by MergeSortBottomUp (natural mode, buffer reused between runs) and spilled to a temporary file.
+ * Runs are then merged by k-way merge using a loser tree (log k comparisons per record, one per tree level),
+ * at most fan-in runs at once -> several merge passes if there are more runs than fan-in.
+ * Records are converted from / to bytes by a pluggable record codec. Sort is stable (ties are won by earlier runs).
+ *
+ * Time complexity: 	O(n log n) comparisons, O(n * log_k (n/m)) record I/O
+ * Space complexity: 	O(m + k*b) memory, O(n) temporary disk space
+ * 		n -> number of records
+ * 		m -> run size (records sorted in memory at once)
+ * 		k -> fan-in (runs merged at once)
+ * 		b -> I/O buffer size
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.sorting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class ExternalMergeSort {
+
+	// default number of runs merged at once
+	public static final int DEFAULT_FAN_IN = 64;
+
+	// size of I/O buffer of each open file in bytes (rounded down to whole records)
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	/** Codec which converts records from / to a fixed number of bytes (e.g. a binary file format). */
+	public interface RecordCodec<T> {
+
+		/** @return size of every encoded record in bytes (positive). */
+		int recordSize();
+
+		/** Decodes a record from exactly recordSize bytes starting at buffer position (position is advanced).
+		  * @param buffer buffer holding at least recordSize remaining bytes.
+		  * @return decoded record (not null).
+		  */
+		T decode(ByteBuffer buffer);
+
+		/** Encodes a record into exactly recordSize bytes starting at buffer position (position is advanced).
+		  * @param record record to be encoded.
+		  * @param buffer buffer with at least recordSize remaining bytes.
+		  */
+		void encode(T record, ByteBuffer buffer);
+	}
+
+	/** Sorts records of input file into output file using default fan-in (temporary files are created next to output file).
+	  * @param input file of encoded records (size must be a multiple of record size).
+	  * @param output file to which sorted records are written (created or truncated; may be the same as input).
+	  * @param codec codec of records.
+	  * @param comparator comparator defining record order.
+	  * @param runSize number of records sorted in memory at once (memory budget).
+	  * @throws IllegalArgumentException if any argument is invalid or input file size is not a multiple of record size.
+	  * @throws IOException if any file cannot be read or written.
+	  */
+	public static <T> void sort(Path input, Path output, RecordCodec<T> codec, Comparator<? super T> comparator, int runSize) throws IOException {
+		sort(input, output, codec, comparator, runSize, DEFAULT_FAN_IN, null);
+	}
+
+	/** Sorts records of input file into output file.
+	  * @param input file of encoded records (size must be a multiple of record size).
+	  * @param output file to which sorted records are written (created or truncated; may be the same as input).
+	  * @param codec codec of records.
+	  * @param comparator comparator defining record order.
+	  * @param runSize number of records sorted in memory at once (memory budget).
+	  * @param fanIn maximum number of runs merged at once (at least 2).
+	  * @param tempDirectory directory for temporary run files (null -> directory of output file).
+	  * @throws IllegalArgumentException if any argument is invalid or input file size is not a multiple of record size.
+	  * @throws IOException if any file cannot be read or written.
+	  */
+	public static <T> void sort(Path input, Path output, RecordCodec<T> codec, Comparator<? super T> comparator, int runSize, int fanIn, Path tempDirectory) throws IOException {
+		// input validation
+		if (input == null || output == null) throw new IllegalArgumentException("Files cannot be null");
+		if (codec == null) throw new IllegalArgumentException("Codec cannot be null");
+		if (codec.recordSize() < 1) throw new IllegalArgumentException("Record size must be a positive number");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		if (runSize < 1) throw new IllegalArgumentException("Run size must be a positive number");
+		if (fanIn < 2) throw new IllegalArgumentException("Fan-in must be at least 2");
+		if (tempDirectory == null) tempDirectory = output.toAbsolutePath().getParent();
+
+		List<Path> runs = new ArrayList<>();
+		List<Path> temporary = new ArrayList<>();
+		try {
+			// split input into sorted runs
+			try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+				if (channel.size() % codec.recordSize() != 0) throw new IllegalArgumentException("File size must be a multiple of record size");
+
+				RunReader<T> reader = new RunReader<>(channel, codec);
+				@SuppressWarnings("unchecked")
+				T[] run = (T[]) new Object[(int) Math.min(runSize, Math.max(1, channel.size() / codec.recordSize()))];
+				@SuppressWarnings("unchecked")
+				T[] buffer = (T[]) new Object[run.length];
+
+				while (reader.hasNext()) {
+					int count = 0;
+					while (count < run.length && reader.hasNext()) {
+						run[count++] = reader.next();
+					}
+					T[] records = count == run.length ? run : Arrays.copyOf(run, count);
+					MergeSortBottomUp.sort(records, buffer, comparator);
+
+					// whole input fits into a single run -> write it directly
+					if (runs.isEmpty() && !reader.hasNext()) {
+						writeRun(records, count, output, codec);
+						return;
+					}
+					Path file = Files.createTempFile(tempDirectory, "run", ".tmp");
+					temporary.add(file);
+					writeRun(records, count, file, codec);
+					runs.add(file);
+				}
+			}
+
+			// empty input -> empty output
+			if (runs.isEmpty()) {
+				Files.write(output, new byte[0]);
+				return;
+			}
+
+			// merge groups of fan-in runs until all remaining runs can be merged at once
+			while (runs.size() > fanIn) {
+				List<Path> merged = new ArrayList<>();
+				for (int i = 0; i < runs.size(); i += fanIn) {
+					List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+					if (group.size() == 1) {
+						merged.add(group.get(0));
+						continue;
+					}
+					Path file = Files.createTempFile(tempDirectory, "run", ".tmp");
+					temporary.add(file);
+					merge(group, file, codec, comparator);
+					for (Path run : group) {
+						Files.delete(run);
+					}
+					merged.add(file);
+				}
+				runs = merged;
+			}
+			merge(runs, output, codec, comparator);
+		}
+		finally {
+			for (Path file : temporary) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/** Writes first count records into a file.
+	  * @param records records to be written.
+	  * @param count number of records to be written.
+	  * @param file file (created or truncated).
+	  * @param codec codec of records.
+	  * @throws IOException if file cannot be written.
+	  */
+	private static <T> void writeRun(T[] records, int count, Path file, RecordCodec<T> codec) throws IOException {
+		try (RunWriter<T> writer = new RunWriter<>(file, codec)) {
+			for (int i = 0; i < count; i++) {
+				writer.write(records[i]);
+			}
+		}
+	}
+
+	/** Merges sorted runs into a single sorted file using a loser tree (earlier runs win ties -> stable).
+	  * @param runs files of sorted runs.
+	  * @param file merged file (created or truncated).
+	  * @param codec codec of records.
+	  * @param comparator comparator defining record order.
+	  * @throws IOException if any file cannot be read or written.
+	  */
+	private static <T> void merge(List<Path> runs, Path file, RecordCodec<T> codec, Comparator<? super T> comparator) throws IOException {
+		List<FileChannel> channels = new ArrayList<>();
+		try (RunWriter<T> writer = new RunWriter<>(file, codec)) {
+			List<RunReader<T>> readers = new ArrayList<>();
+			for (Path run : runs) {
+				FileChannel channel = FileChannel.open(run, StandardOpenOption.READ);
+				channels.add(channel);
+				readers.add(new RunReader<>(channel, codec));
+			}
+
+			LoserTree<T> tree = new LoserTree<>(readers, comparator);
+			while (!tree.isEmpty()) {
+				writer.write(tree.poll());
+			}
+		}
+		finally {
+			for (FileChannel channel : channels) {
+				channel.close();
+			}
+		}
+	}
+
+	/** Utility method to get I/O buffer size rounded down to whole records (at least one record).
+	  * @param recordSize size of record in bytes.
+	  * @return buffer size in bytes.
+	  */
+	private static int bufferSize(int recordSize) {
+		return Math.max(1, DEFAULT_BUFFER_SIZE / recordSize) * recordSize;
+	}
+
+	// Sequential reader of records from a file channel (buffered, refilled a whole buffer at a time).
+	private static class RunReader<T> {
+		final FileChannel channel;
+		final RecordCodec<T> codec;
+		final ByteBuffer buffer;
+
+		RunReader(FileChannel channel, RecordCodec<T> codec) {
+			this.channel = channel;
+			this.codec = codec;
+			this.buffer = ByteBuffer.allocateDirect(bufferSize(codec.recordSize()));
+			buffer.flip();
+		}
+
+		boolean hasNext() throws IOException {
+			if (buffer.remaining() >= codec.recordSize()) return true;
+			// refill -> keep partial record, read until buffer is full or channel is done
+			buffer.compact();
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+			buffer.flip();
+			return buffer.remaining() >= codec.recordSize();
+		}
+
+		T next() throws IOException {
+			if (!hasNext()) throw new IllegalStateException("No more records");
+			int position = buffer.position();
+			T record = codec.decode(buffer);
+			if (buffer.position() != position + codec.recordSize()) throw new IllegalStateException("Codec must consume exactly record size bytes");
+			return record;
+		}
+	}
+
+	// Sequential writer of records to a file (buffered, flushed a whole buffer at a time).
+	private static class RunWriter<T> implements AutoCloseable {
+		final FileChannel channel;
+		final RecordCodec<T> codec;
+		final ByteBuffer buffer;
+
+		RunWriter(Path file, RecordCodec<T> codec) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			this.codec = codec;
+			this.buffer = ByteBuffer.allocateDirect(bufferSize(codec.recordSize()));
+		}
+
+		void write(T record) throws IOException {
+			if (buffer.remaining() < codec.recordSize()) flush();
+			int position = buffer.position();
+			codec.encode(record, buffer);
+			if (buffer.position() != position + codec.recordSize()) throw new IllegalStateException("Codec must produce exactly record size bytes");
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) channel.write(buffer);
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			}
+			finally {
+				channel.close();
+			}
+		}
+	}
+
+	// Loser tree over k runs: leaf of run i is node k + i, inner nodes 1..k-1 hold losers of their matches, node 0 holds the winner.
+	private static class LoserTree<T> {
+		final List<RunReader<T>> readers;
+		final Comparator<? super T> comparator;
+		// current record of each run (null -> run is exhausted)
+		final Object[] heads;
+		final int[] tree;
+
+		LoserTree(List<RunReader<T>> readers, Comparator<? super T> comparator) throws IOException {
+			final int k = readers.size();
+			this.readers = readers;
+			this.comparator = comparator;
+			this.heads = new Object[k];
+			this.tree = new int[k];
+			for (int i = 0; i < k; i++) {
+				heads[i] = readers.get(i).hasNext() ? readers.get(i).next() : null;
+			}
+
+			// play all matches bottom-up (winners of subtrees are kept only while building)
+			int[] winners = new int[2 * k];
+			for (int i = 0; i < k; i++) {
+				winners[k + i] = i;
+			}
+			for (int node = k - 1; node >= 1; node--) {
+				int a = winners[2 * node], b = winners[2 * node + 1];
+				boolean aWins = beats(a, b);
+				winners[node] = aWins ? a : b;
+				tree[node] = aWins ? b : a;
+			}
+			tree[0] = k == 1 ? 0 : winners[1];
+		}
+
+		boolean isEmpty() {
+			return heads[tree[0]] == null;
+		}
+
+		@SuppressWarnings("unchecked")
+		T poll() throws IOException {
+			int winner = tree[0];
+			T record = (T) heads[winner];
+			RunReader<T> reader = readers.get(winner);
+			heads[winner] = reader.hasNext() ? reader.next() : null;
+
+			// replay matches on the path from winner's leaf to the root
+			for (int node = (tree.length + winner) / 2; node >= 1; node /= 2) {
+				if (beats(tree[node], winner)) {
+					int loser = winner;
+					winner = tree[node];
+					tree[node] = loser;
+				}
+			}
+			tree[0] = winner;
+			return record;
+		}
+
+		// run a beats run b if its record is smaller (earlier run wins ties, exhausted runs always lose)
+		@SuppressWarnings("unchecked")
+		boolean beats(int a, int b) {
+			if (heads[b] == null) return heads[a] != null || a < b;
+			if (heads[a] == null) return false;
+			int cmp = comparator.compare((T) heads[a], (T) heads[b]);
+			return cmp < 0 || (cmp == 0 && a < b);
+		}
+	}
+}
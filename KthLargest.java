@@ -1,11 +1,15 @@
 /**
- * This file contains two implementations of finding the k-th largest item within an array. 
+ * This file contains implementations of finding the k-th largest item within an array. 
+ * Partitions are recorded by OperationStats (no-op unless operation counting is switched on).
+ * 
  * Time complexity: 
  * -> 1) using partitioning (quick select)  -> O(n^2) worst case, O(n) expected (with high probability -> random pivot)
  * -> 2) maintaining a heap of fixed size k -> O(n log k) worst case
+ * -> 3) Floyd-Rivest sampling selection with median-of-medians fallback -> O(n) worst case
  * Space complexity:
- * -> 1) O(1) 
+ * -> 1) O(1) (O(n) for parallel partitioning)
  * -> 2) O(k)
+ * -> 3) O(log n)
  * 		n -> size of array, k -> rank of element to be found
  * 
  * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
@@ -14,11 +18,28 @@
 
 package com.mgazdovic.algo.searching;
 
+import java.util.Comparator;
 import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
 import com.mgazdovic.algo.sorting.QuickSortIterative;
+import com.mgazdovic.algo.stats.OperationStats;
+import com.mgazdovic.algo.vector.VectorOps;
 
 public class KthLargest {
 	
+	// ranges larger than this are narrowed by recursive selection from a sample (Floyd-Rivest)
+	private static final int FLOYD_RIVEST_SAMPLE_THRESHOLD = 600;
+	
+	// ranges larger than this are partitioned in parallel (parallel quick select)
+	private static final int PARALLEL_SELECT_THRESHOLD = 1 << 20;
+	
+	// number of elements counted / scattered by a single task (parallel quick select)
+	private static final int PARALLEL_SELECT_CHUNK = 1 << 16;
+	
 	/** Performs quick select algorithm. 
 	  * @param input non-empty array which is partitioned until k-th largest element is returned.
 	  * @param k rank of element to be found. 
@@ -26,8 +47,21 @@ public class KthLargest {
 	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
 	  */
 	public static <T extends Comparable<T>> T quickSelect(T[] input, int k) {
+		return quickSelect(input, k, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs quick select algorithm using given comparator. 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found. 
+	  * @param comparator comparator defining element order.
+	  * @return k-th largest element (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements, k is invalid or comparator is null.
+	  */
+	public static <T> T quickSelect(T[] input, int k, Comparator<? super T> comparator) {
 		// input validation
 		inputValidOrThrow(input, k);
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
 		
 		final int n = input.length;
 		
@@ -42,7 +76,7 @@ public class KthLargest {
 		while (true) {
 		
 			// partition puts pivot in correct position and divides array into two subarrays (<=, pivot, >=)
-			partitionIndex = QuickSortIterative.partition(input, from, to);
+			partitionIndex = QuickSortIterative.partition(input, from, to, comparator);
 
 			// found it
 			if (partitionIndex == kSortedIndex) {
@@ -67,18 +101,31 @@ public class KthLargest {
 	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
 	  */
 	public static <T extends Comparable<T>> T minHeapSelect(T[] input, int k) {
+		return minHeapSelect(input, k, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs k-largest selection algorithm using min heap ordered by given comparator. 
+	  * @param input non-empty array in which k-th largest element is searched for.
+	  * @param k rank of element to be found. 
+	  * @param comparator comparator defining element order.
+	  * @return k-th largest element (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements, k is invalid or comparator is null.
+	  */
+	public static <T> T minHeapSelect(T[] input, int k, Comparator<? super T> comparator) {
 		// input validation
 		inputValidOrThrow(input, k);
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
 		
 		// build heap of size k
-		PriorityQueue<T> minHeap = new PriorityQueue<>();
+		PriorityQueue<T> minHeap = new PriorityQueue<>(k, comparator);
 		for (int i = 0; i < k; i++) {
 			minHeap.add(input[i]);
 		}
 		
 		// maintain size k (keep replacing root with greater elements)
 		for (int i = k; i < input.length; i++) {
-			if (input[i].compareTo(minHeap.peek()) > 0) {
+			if (comparator.compare(input[i], minHeap.peek()) > 0) {
 				minHeap.poll();
 				minHeap.add(input[i]);
 			}
@@ -88,8 +135,1202 @@ public class KthLargest {
 		return minHeap.peek();
 	}
 	
+	/** Performs quick select algorithm ordering elements by int key. 
+	  * Keys are extracted only once per element and moved together with elements (input is reordered).
+	  * @param input non-empty array which is partitioned until element with k-th largest key is returned.
+	  * @param k rank of element to be found. 
+	  * @param key function extracting key from an element.
+	  * @return element with k-th largest key (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements, k is invalid or key function is null.
+	  */
+	public static <T> T quickSelectByIntKey(T[] input, int k, ToIntFunction<? super T> key) {
+		// input validation
+		inputValidOrThrow(input, k);
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		// extract keys once
+		int[] keys = new int[input.length];
+		for (int i = 0; i < input.length; i++) {
+			keys[i] = key.applyAsInt(input[i]);
+		}
+		
+		int from = 0;
+		int to = input.length;
+		
+		// sorted index of k-th largest
+		int kSortedIndex = input.length - k;
+		
+		// repeat partitioning (keys and elements in lockstep) until k-th largest is at it's sorted position
+		while (true) {
+			int partitionIndex = QuickSortIterative.partition(keys, input, from, to);
+			
+			// found it
+			if (partitionIndex == kSortedIndex) {
+				return input[kSortedIndex];
+			}
+			
+			// will be found in range [from, partitionIndex> or [partitionIndex + 1, to>
+			if (partitionIndex > kSortedIndex) {
+				to = partitionIndex;
+			}
+			else {
+				from = partitionIndex + 1;
+			}
+		}
+	}
+
+	/** Performs quick select algorithm ordering elements by long key. 
+	  * Keys are extracted only once per element and moved together with elements (input is reordered).
+	  * @param input non-empty array which is partitioned until element with k-th largest key is returned.
+	  * @param k rank of element to be found. 
+	  * @param key function extracting key from an element.
+	  * @return element with k-th largest key (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements, k is invalid or key function is null.
+	  */
+	public static <T> T quickSelectByLongKey(T[] input, int k, ToLongFunction<? super T> key) {
+		// input validation
+		inputValidOrThrow(input, k);
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		// extract keys once
+		long[] keys = new long[input.length];
+		for (int i = 0; i < input.length; i++) {
+			keys[i] = key.applyAsLong(input[i]);
+		}
+		
+		int from = 0;
+		int to = input.length;
+		
+		// sorted index of k-th largest
+		int kSortedIndex = input.length - k;
+		
+		// repeat partitioning (keys and elements in lockstep) until k-th largest is at it's sorted position
+		while (true) {
+			int partitionIndex = QuickSortIterative.partition(keys, input, from, to);
+			
+			// found it
+			if (partitionIndex == kSortedIndex) {
+				return input[kSortedIndex];
+			}
+			
+			// will be found in range [from, partitionIndex> or [partitionIndex + 1, to>
+			if (partitionIndex > kSortedIndex) {
+				to = partitionIndex;
+			}
+			else {
+				from = partitionIndex + 1;
+			}
+		}
+	}
+	
+	/** Performs quick select algorithm on primitive array (no boxing).
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static int quickSelect(int[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int from = 0;
+		int to = input.length;
+		
+		// sorted index of k-th largest
+		int kSortedIndex = input.length - k;
+		
+		// repeat partitioning until k-th largest is at it's sorted position
+		while (true) {
+			int partitionIndex = QuickSortIterative.partition(input, from, to);
+			
+			// found it
+			if (partitionIndex == kSortedIndex) {
+				return input[kSortedIndex];
+			}
+			
+			// will be found in range [from, partitionIndex> or [partitionIndex + 1, to>
+			if (partitionIndex > kSortedIndex) {
+				to = partitionIndex;
+			}
+			else {
+				from = partitionIndex + 1;
+			}
+		}
+	}
+	
+	/** Performs k-largest selection algorithm using array-backed min heap on primitive array (no boxing).
+	  * @param input non-empty array in which k-th largest element is searched for (not modified).
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static int minHeapSelect(int[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		// build heap of size k
+		int[] minHeap = new int[k];
+		System.arraycopy(input, 0, minHeap, 0, k);
+		for (int i = k/2 - 1; i >= 0; i--) {
+			siftDown(minHeap, i);
+		}
+		
+		// maintain size k (keep replacing root with greater elements, runs of smaller ones are skipped by SIMD scan if available)
+		for (int i = k; (i = VectorOps.indexOfGreater(input, i, input.length, minHeap[0])) < input.length; i++) {
+			minHeap[0] = input[i];
+			siftDown(minHeap, 0);
+		}
+		
+		// min-heap of size k -> root is k-th largest
+		return minHeap[0];
+	}
+	
+	/** Restores min heap property by moving element at index down the heap. 
+	  * @param heap array-backed binary min heap.
+	  * @param index index of element which is moved down.
+	  */
+	private static void siftDown(int[] heap, int index) {
+		final int n = heap.length;
+		int item = heap[index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick smaller child
+			if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+			if (item <= heap[child]) break;
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = item;
+	}
+
+	/** Performs quick select algorithm on primitive array (no boxing).
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static long quickSelect(long[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int from = 0;
+		int to = input.length;
+		
+		// sorted index of k-th largest
+		int kSortedIndex = input.length - k;
+		
+		// repeat partitioning until k-th largest is at it's sorted position
+		while (true) {
+			int partitionIndex = QuickSortIterative.partition(input, from, to);
+			
+			// found it
+			if (partitionIndex == kSortedIndex) {
+				return input[kSortedIndex];
+			}
+			
+			// will be found in range [from, partitionIndex> or [partitionIndex + 1, to>
+			if (partitionIndex > kSortedIndex) {
+				to = partitionIndex;
+			}
+			else {
+				from = partitionIndex + 1;
+			}
+		}
+	}
+	
+	/** Performs k-largest selection algorithm using array-backed min heap on primitive array (no boxing).
+	  * @param input non-empty array in which k-th largest element is searched for (not modified).
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static long minHeapSelect(long[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		// build heap of size k
+		long[] minHeap = new long[k];
+		System.arraycopy(input, 0, minHeap, 0, k);
+		for (int i = k/2 - 1; i >= 0; i--) {
+			siftDown(minHeap, i);
+		}
+		
+		// maintain size k (keep replacing root with greater elements, runs of smaller ones are skipped by SIMD scan if available)
+		for (int i = k; (i = VectorOps.indexOfGreater(input, i, input.length, minHeap[0])) < input.length; i++) {
+			minHeap[0] = input[i];
+			siftDown(minHeap, 0);
+		}
+		
+		// min-heap of size k -> root is k-th largest
+		return minHeap[0];
+	}
+	
+	/** Restores min heap property by moving element at index down the heap. 
+	  * @param heap array-backed binary min heap.
+	  * @param index index of element which is moved down.
+	  */
+	private static void siftDown(long[] heap, int index) {
+		final int n = heap.length;
+		long item = heap[index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick smaller child
+			if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+			if (item <= heap[child]) break;
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = item;
+	}
+
+	/** Performs quick select algorithm on primitive array (no boxing).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static double quickSelect(double[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int from = 0;
+		int to = input.length;
+		
+		// sorted index of k-th largest
+		int kSortedIndex = input.length - k;
+		
+		// repeat partitioning until k-th largest is at it's sorted position
+		while (true) {
+			int partitionIndex = QuickSortIterative.partition(input, from, to);
+			
+			// found it
+			if (partitionIndex == kSortedIndex) {
+				return input[kSortedIndex];
+			}
+			
+			// will be found in range [from, partitionIndex> or [partitionIndex + 1, to>
+			if (partitionIndex > kSortedIndex) {
+				to = partitionIndex;
+			}
+			else {
+				from = partitionIndex + 1;
+			}
+		}
+	}
+	
+	/** Performs k-largest selection algorithm using array-backed min heap on primitive array (no boxing).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array in which k-th largest element is searched for (not modified).
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static double minHeapSelect(double[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		// build heap of size k
+		double[] minHeap = new double[k];
+		System.arraycopy(input, 0, minHeap, 0, k);
+		for (int i = k/2 - 1; i >= 0; i--) {
+			siftDown(minHeap, i);
+		}
+		
+		// maintain size k (keep replacing root with greater elements)
+		for (int i = k; i < input.length; i++) {
+			if (Double.compare(input[i], minHeap[0]) > 0) {
+				minHeap[0] = input[i];
+				siftDown(minHeap, 0);
+			}
+		}
+		
+		// min-heap of size k -> root is k-th largest
+		return minHeap[0];
+	}
+	
+	/** Restores min heap property by moving element at index down the heap. 
+	  * @param heap array-backed binary min heap.
+	  * @param index index of element which is moved down.
+	  */
+	private static void siftDown(double[] heap, int index) {
+		final int n = heap.length;
+		double item = heap[index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick smaller child
+			if (child + 1 < n && Double.compare(heap[child + 1], heap[child]) < 0) child++;
+			if (Double.compare(item, heap[child]) <= 0) break;
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = item;
+	}
+	
+	/** Performs Floyd-Rivest selection algorithm using natural ordering (O(n) worst case). 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static <T extends Comparable<T>> T floydRivestSelect(T[] input, int k) {
+		return floydRivestSelect(input, k, Comparator.<T>naturalOrder());
+	}
+
+	/** Performs Floyd-Rivest selection algorithm (sampling narrows the range before each partition).
+	  * Falls back to median-of-medians pivots once a partition does not shrink the range to 3/4 (O(n) worst case). 
+	  * Does not use shared random number generator (deterministic for given input). 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found.
+	  * @param comparator comparator defining element order.
+	  * @return k-th largest element (any element with rank equal to k). 
+	  * @throws IllegalArgumentException if input contains no elements, comparator is null or k is invalid.
+	  */
+	public static <T> T floydRivestSelect(T[] input, int k, Comparator<? super T> comparator) {
+		// input validation
+		inputValidOrThrow(input, k);
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		
+		int kSortedIndex = input.length - k;
+		select(input, 0, input.length - 1, kSortedIndex, true, comparator);
+		return input[kSortedIndex];
+	}
+	
+	/** Moves element of sorted rank index into its sorted position within range [left, right]. 
+	  * Uses Floyd-Rivest sampling while every partition shrinks the range to 3/4, median-of-medians pivots afterwards.
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param index sorted index of element to be found (left <= index <= right).
+	  * @param sampling true to start with Floyd-Rivest sampling; false to use median-of-medians pivots only.
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void select(T[] input, int left, int right, int index, boolean sampling, Comparator<? super T> comparator) {
+		while (right > left) {
+			int size = right - left + 1;
+			int pivotIndex;
+			if (sampling) {
+				// large range -> recursively select from a sample around index, so that element at index is a good pivot
+				if (right - left > FLOYD_RIVEST_SAMPLE_THRESHOLD) {
+					double n = right - left + 1;
+					double i = index - left + 1;
+					double z = Math.log(n);
+					double s = 0.5 * Math.exp(2 * z / 3);
+					double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+					int sampleLeft = (int) Math.max(left, index - i * s / n + sd);
+					int sampleRight = (int) Math.min(right, index + (n - i) * s / n + sd);
+					select(input, sampleLeft, sampleRight, index, true, comparator);
+				}
+				pivotIndex = index;
+			}
+			else {
+				pivotIndex = medianOfMedians(input, left, right, comparator);
+			}
+			
+			int partitionIndex = partition(input, left, right, pivotIndex, comparator);
+			
+			// continue in the part which contains index
+			if (partitionIndex <= index) left = partitionIndex + 1;
+			if (partitionIndex >= index) right = partitionIndex - 1;
+			
+			// range did not shrink by a constant factor -> median-of-medians pivots from now on (total work stays geometric)
+			if (4L * (right - left + 1) > 3L * size) sampling = false;
+		}
+	}
+	
+	/** Partitions range [left, right] around element at pivotIndex (Hoare-style, equal elements stop both scans). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param pivotIndex index of pivot element.
+	  * @param comparator comparator defining element order.
+	  * @return index of pivot element which is now in correct sorted position.
+	  */
+	private static <T> int partition(T[] input, int left, int right, int pivotIndex, Comparator<? super T> comparator) {
+		T pivot = input[pivotIndex];
+		
+		// pivot to left end, greater of the two ends to the right end -> both scans are guarded
+		arraySwap(input, left, pivotIndex);
+		if (comparator.compare(input[right], pivot) > 0) arraySwap(input, right, left);
+		
+		int i = left, j = right, swaps = 0;
+		while (i < j) {
+			arraySwap(input, i++, j--);
+			swaps++;
+			while (comparator.compare(input[i], pivot) < 0) i++;
+			while (comparator.compare(input[j], pivot) > 0) j--;
+		}
+		
+		// move pivot to its final position
+		if (comparator.compare(input[left], pivot) == 0) {
+			arraySwap(input, left, j);
+		}
+		else {
+			arraySwap(input, ++j, right);
+		}
+		OperationStats.recordPartition(0, swaps + 2, j - left, right - j);
+		return j;
+	}
+	
+	/** Finds median-of-medians pivot within range [left, right] (guarantees at least 30% of elements on each side). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param comparator comparator defining element order.
+	  * @return index of chosen pivot element.
+	  */
+	private static <T> int medianOfMedians(T[] input, int left, int right, Comparator<? super T> comparator) {
+		// medians of groups of 5 are moved to the beginning of the range
+		int medians = 0;
+		for (int from = left; from <= right; from += 5) {
+			int to = Math.min(from + 4, right);
+			insertionSort(input, from, to, comparator);
+			arraySwap(input, (from + to)>>>1, left + medians++);
+		}
+		
+		// median of medians (deterministic selection)
+		int median = left + (medians - 1) / 2;
+		select(input, left, left + medians - 1, median, false, comparator);
+		return median;
+	}
+	
+	/** Sorts range [from, to] using insertion sort (used for groups of 5). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (inclusive).
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void insertionSort(T[] input, int from, int to, Comparator<? super T> comparator) {
+		for (int i = from + 1; i <= to; i++) {
+			T item = input[i];
+			int j = i - 1;
+			while (j >= from && comparator.compare(input[j], item) > 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Utility method to swap two elements in an array. 
+	  * @param array array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static <T> void arraySwap(T[] array, int swapIndex1, int swapIndex2) {
+		T temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+
+	/** Performs Floyd-Rivest selection algorithm (sampling narrows the range before each partition).
+	  * Falls back to median-of-medians pivots once a partition does not shrink the range to 3/4 (O(n) worst case). 
+	  * Does not use shared random number generator (deterministic for given input). 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found.
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static int floydRivestSelect(int[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		select(input, 0, input.length - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Moves element of sorted rank index into its sorted position within range [left, right]. 
+	  * Uses Floyd-Rivest sampling while every partition shrinks the range to 3/4, median-of-medians pivots afterwards.
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param index sorted index of element to be found (left <= index <= right).
+	  * @param sampling true to start with Floyd-Rivest sampling; false to use median-of-medians pivots only.
+	  */
+	private static void select(int[] input, int left, int right, int index, boolean sampling) {
+		while (right > left) {
+			int size = right - left + 1;
+			int pivotIndex;
+			if (sampling) {
+				// large range -> recursively select from a sample around index, so that element at index is a good pivot
+				if (right - left > FLOYD_RIVEST_SAMPLE_THRESHOLD) {
+					double n = right - left + 1;
+					double i = index - left + 1;
+					double z = Math.log(n);
+					double s = 0.5 * Math.exp(2 * z / 3);
+					double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+					int sampleLeft = (int) Math.max(left, index - i * s / n + sd);
+					int sampleRight = (int) Math.min(right, index + (n - i) * s / n + sd);
+					select(input, sampleLeft, sampleRight, index, true);
+				}
+				pivotIndex = index;
+			}
+			else {
+				pivotIndex = medianOfMedians(input, left, right);
+			}
+			
+			int partitionIndex = partition(input, left, right, pivotIndex);
+			
+			// continue in the part which contains index
+			if (partitionIndex <= index) left = partitionIndex + 1;
+			if (partitionIndex >= index) right = partitionIndex - 1;
+			
+			// range did not shrink by a constant factor -> median-of-medians pivots from now on (total work stays geometric)
+			if (4L * (right - left + 1) > 3L * size) sampling = false;
+		}
+	}
+	
+	/** Partitions range [left, right] around element at pivotIndex (Hoare-style, equal elements stop both scans). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param pivotIndex index of pivot element.
+	  * @return index of pivot element which is now in correct sorted position.
+	  */
+	private static int partition(int[] input, int left, int right, int pivotIndex) {
+		int pivot = input[pivotIndex];
+		
+		// pivot to left end, greater of the two ends to the right end -> both scans are guarded
+		arraySwap(input, left, pivotIndex);
+		if (input[right] > pivot) arraySwap(input, right, left);
+		
+		int i = left, j = right, swaps = 0;
+		while (i < j) {
+			arraySwap(input, i++, j--);
+			swaps++;
+			while (input[i] < pivot) i++;
+			while (input[j] > pivot) j--;
+		}
+		
+		// move pivot to its final position
+		if (input[left] == pivot) {
+			arraySwap(input, left, j);
+		}
+		else {
+			arraySwap(input, ++j, right);
+		}
+		OperationStats.recordPartition(right - left + 1, swaps + 2, j - left, right - j);
+		return j;
+	}
+	
+	/** Finds median-of-medians pivot within range [left, right] (guarantees at least 30% of elements on each side). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int medianOfMedians(int[] input, int left, int right) {
+		// medians of groups of 5 are moved to the beginning of the range
+		int medians = 0;
+		for (int from = left; from <= right; from += 5) {
+			int to = Math.min(from + 4, right);
+			insertionSort(input, from, to);
+			arraySwap(input, (from + to)>>>1, left + medians++);
+		}
+		
+		// median of medians (deterministic selection)
+		int median = left + (medians - 1) / 2;
+		select(input, left, left + medians - 1, median, false);
+		return median;
+	}
+	
+	/** Sorts range [from, to] using insertion sort (used for groups of 5). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (inclusive).
+	  */
+	private static void insertionSort(int[] input, int from, int to) {
+		for (int i = from + 1; i <= to; i++) {
+			int item = input[i];
+			int j = i - 1;
+			while (j >= from && input[j] > item) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Utility method to swap two elements in an array. 
+	  * @param array array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(int[] array, int swapIndex1, int swapIndex2) {
+		int temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+
+	/** Performs quick select algorithm with parallel (fork-join) three-way partitioning of very large ranges.
+	  * Ranges larger than the parallel threshold are partitioned by counting and scattering chunks in parallel, 
+	  * remaining range is handled by {@link #floydRivestSelect(int[], int)}. Input is reordered. 
+	  * @param input non-empty array in which k-th largest element is searched for.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static int parallelQuickSelect(int[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		int from = 0, to = input.length;
+		int[] aux = to > PARALLEL_SELECT_THRESHOLD ? new int[to] : null;
+		
+		while (to - from > PARALLEL_SELECT_THRESHOLD) {
+			// median of 3 random elements as pivot
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int a = random.nextInt(from, to), b = random.nextInt(from, to), c = random.nextInt(from, to);
+			int pivot = median(input[a], input[b], input[c]);
+			
+			// count elements less than and equal to pivot in each chunk
+			final int start = from, end = to;
+			int chunks = (end - start + PARALLEL_SELECT_CHUNK - 1) / PARALLEL_SELECT_CHUNK;
+			int[] less = new int[chunks + 1];
+			int[] equal = new int[chunks + 1];
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int lessCount = 0, equalCount = 0;
+				for (int i = start + chunk * PARALLEL_SELECT_CHUNK, last = Math.min(i + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					lessCount += input[i] < pivot ? 1 : 0;
+					equalCount += input[i] == pivot ? 1 : 0;
+				}
+				less[chunk + 1] = lessCount;
+				equal[chunk + 1] = equalCount;
+			});
+			
+			// prefix sums -> starting position of each chunk within less / equal / greater parts
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				less[chunk + 1] += less[chunk];
+				equal[chunk + 1] += equal[chunk];
+			}
+			final int lessTotal = less[chunks], equalTotal = equal[chunks];
+			
+			// scatter into aux ([less | equal | greater]) and copy partitioned range back
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				int lessIndex = start + less[chunk];
+				int equalIndex = start + lessTotal + equal[chunk];
+				int greaterIndex = start + lessTotal + equalTotal + (chunkStart - start) - less[chunk] - equal[chunk];
+				for (int i = chunkStart, last = Math.min(chunkStart + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					int item = input[i];
+					if (item < pivot) aux[lessIndex++] = item;
+					else if (item == pivot) aux[equalIndex++] = item;
+					else aux[greaterIndex++] = item;
+				}
+			});
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				System.arraycopy(aux, chunkStart, input, chunkStart, Math.min(PARALLEL_SELECT_CHUNK, end - chunkStart));
+			});
+			
+			// continue in the part which contains k-th largest
+			if (kSortedIndex < start + lessTotal) {
+				to = start + lessTotal;
+			}
+			else if (kSortedIndex < start + lessTotal + equalTotal) {
+				return pivot;
+			}
+			else {
+				from = start + lessTotal + equalTotal;
+			}
+		}
+		
+		select(input, from, to - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Utility method to return median of three values. 
+	  * @param a first value.
+	  * @param b second value.
+	  * @param c third value.
+	  * @return median value.
+	  */
+	private static int median(int a, int b, int c) {
+		if (a < b) {
+			if (b < c) return b;
+			return a < c ? c : a;
+		}
+		if (a < c) return a;
+		return b < c ? c : b;
+	}
+
+	/** Performs Floyd-Rivest selection algorithm (sampling narrows the range before each partition).
+	  * Falls back to median-of-medians pivots once a partition does not shrink the range to 3/4 (O(n) worst case). 
+	  * Does not use shared random number generator (deterministic for given input). 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found.
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static long floydRivestSelect(long[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		select(input, 0, input.length - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Moves element of sorted rank index into its sorted position within range [left, right]. 
+	  * Uses Floyd-Rivest sampling while every partition shrinks the range to 3/4, median-of-medians pivots afterwards.
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param index sorted index of element to be found (left <= index <= right).
+	  * @param sampling true to start with Floyd-Rivest sampling; false to use median-of-medians pivots only.
+	  */
+	private static void select(long[] input, int left, int right, int index, boolean sampling) {
+		while (right > left) {
+			int size = right - left + 1;
+			int pivotIndex;
+			if (sampling) {
+				// large range -> recursively select from a sample around index, so that element at index is a good pivot
+				if (right - left > FLOYD_RIVEST_SAMPLE_THRESHOLD) {
+					double n = right - left + 1;
+					double i = index - left + 1;
+					double z = Math.log(n);
+					double s = 0.5 * Math.exp(2 * z / 3);
+					double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+					int sampleLeft = (int) Math.max(left, index - i * s / n + sd);
+					int sampleRight = (int) Math.min(right, index + (n - i) * s / n + sd);
+					select(input, sampleLeft, sampleRight, index, true);
+				}
+				pivotIndex = index;
+			}
+			else {
+				pivotIndex = medianOfMedians(input, left, right);
+			}
+			
+			int partitionIndex = partition(input, left, right, pivotIndex);
+			
+			// continue in the part which contains index
+			if (partitionIndex <= index) left = partitionIndex + 1;
+			if (partitionIndex >= index) right = partitionIndex - 1;
+			
+			// range did not shrink by a constant factor -> median-of-medians pivots from now on (total work stays geometric)
+			if (4L * (right - left + 1) > 3L * size) sampling = false;
+		}
+	}
+	
+	/** Partitions range [left, right] around element at pivotIndex (Hoare-style, equal elements stop both scans). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param pivotIndex index of pivot element.
+	  * @return index of pivot element which is now in correct sorted position.
+	  */
+	private static int partition(long[] input, int left, int right, int pivotIndex) {
+		long pivot = input[pivotIndex];
+		
+		// pivot to left end, greater of the two ends to the right end -> both scans are guarded
+		arraySwap(input, left, pivotIndex);
+		if (input[right] > pivot) arraySwap(input, right, left);
+		
+		int i = left, j = right, swaps = 0;
+		while (i < j) {
+			arraySwap(input, i++, j--);
+			swaps++;
+			while (input[i] < pivot) i++;
+			while (input[j] > pivot) j--;
+		}
+		
+		// move pivot to its final position
+		if (input[left] == pivot) {
+			arraySwap(input, left, j);
+		}
+		else {
+			arraySwap(input, ++j, right);
+		}
+		OperationStats.recordPartition(right - left + 1, swaps + 2, j - left, right - j);
+		return j;
+	}
+	
+	/** Finds median-of-medians pivot within range [left, right] (guarantees at least 30% of elements on each side). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int medianOfMedians(long[] input, int left, int right) {
+		// medians of groups of 5 are moved to the beginning of the range
+		int medians = 0;
+		for (int from = left; from <= right; from += 5) {
+			int to = Math.min(from + 4, right);
+			insertionSort(input, from, to);
+			arraySwap(input, (from + to)>>>1, left + medians++);
+		}
+		
+		// median of medians (deterministic selection)
+		int median = left + (medians - 1) / 2;
+		select(input, left, left + medians - 1, median, false);
+		return median;
+	}
+	
+	/** Sorts range [from, to] using insertion sort (used for groups of 5). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (inclusive).
+	  */
+	private static void insertionSort(long[] input, int from, int to) {
+		for (int i = from + 1; i <= to; i++) {
+			long item = input[i];
+			int j = i - 1;
+			while (j >= from && input[j] > item) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Utility method to swap two elements in an array. 
+	  * @param array array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(long[] array, int swapIndex1, int swapIndex2) {
+		long temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+
+	/** Performs quick select algorithm with parallel (fork-join) three-way partitioning of very large ranges.
+	  * Ranges larger than the parallel threshold are partitioned by counting and scattering chunks in parallel, 
+	  * remaining range is handled by {@link #floydRivestSelect(long[], int)}. Input is reordered. 
+	  * @param input non-empty array in which k-th largest element is searched for.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static long parallelQuickSelect(long[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		int from = 0, to = input.length;
+		long[] aux = to > PARALLEL_SELECT_THRESHOLD ? new long[to] : null;
+		
+		while (to - from > PARALLEL_SELECT_THRESHOLD) {
+			// median of 3 random elements as pivot
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int a = random.nextInt(from, to), b = random.nextInt(from, to), c = random.nextInt(from, to);
+			long pivot = median(input[a], input[b], input[c]);
+			
+			// count elements less than and equal to pivot in each chunk
+			final int start = from, end = to;
+			int chunks = (end - start + PARALLEL_SELECT_CHUNK - 1) / PARALLEL_SELECT_CHUNK;
+			int[] less = new int[chunks + 1];
+			int[] equal = new int[chunks + 1];
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int lessCount = 0, equalCount = 0;
+				for (int i = start + chunk * PARALLEL_SELECT_CHUNK, last = Math.min(i + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					lessCount += input[i] < pivot ? 1 : 0;
+					equalCount += input[i] == pivot ? 1 : 0;
+				}
+				less[chunk + 1] = lessCount;
+				equal[chunk + 1] = equalCount;
+			});
+			
+			// prefix sums -> starting position of each chunk within less / equal / greater parts
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				less[chunk + 1] += less[chunk];
+				equal[chunk + 1] += equal[chunk];
+			}
+			final int lessTotal = less[chunks], equalTotal = equal[chunks];
+			
+			// scatter into aux ([less | equal | greater]) and copy partitioned range back
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				int lessIndex = start + less[chunk];
+				int equalIndex = start + lessTotal + equal[chunk];
+				int greaterIndex = start + lessTotal + equalTotal + (chunkStart - start) - less[chunk] - equal[chunk];
+				for (int i = chunkStart, last = Math.min(chunkStart + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					long item = input[i];
+					if (item < pivot) aux[lessIndex++] = item;
+					else if (item == pivot) aux[equalIndex++] = item;
+					else aux[greaterIndex++] = item;
+				}
+			});
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				System.arraycopy(aux, chunkStart, input, chunkStart, Math.min(PARALLEL_SELECT_CHUNK, end - chunkStart));
+			});
+			
+			// continue in the part which contains k-th largest
+			if (kSortedIndex < start + lessTotal) {
+				to = start + lessTotal;
+			}
+			else if (kSortedIndex < start + lessTotal + equalTotal) {
+				return pivot;
+			}
+			else {
+				from = start + lessTotal + equalTotal;
+			}
+		}
+		
+		select(input, from, to - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Utility method to return median of three values. 
+	  * @param a first value.
+	  * @param b second value.
+	  * @param c third value.
+	  * @return median value.
+	  */
+	private static long median(long a, long b, long c) {
+		if (a < b) {
+			if (b < c) return b;
+			return a < c ? c : a;
+		}
+		if (a < c) return a;
+		return b < c ? c : b;
+	}
+
+	/** Performs Floyd-Rivest selection algorithm (sampling narrows the range before each partition).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * Falls back to median-of-medians pivots once a partition does not shrink the range to 3/4 (O(n) worst case). 
+	  * Does not use shared random number generator (deterministic for given input). 
+	  * @param input non-empty array which is partitioned until k-th largest element is returned.
+	  * @param k rank of element to be found.
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static double floydRivestSelect(double[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		select(input, 0, input.length - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Moves element of sorted rank index into its sorted position within range [left, right]. 
+	  * Uses Floyd-Rivest sampling while every partition shrinks the range to 3/4, median-of-medians pivots afterwards.
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param index sorted index of element to be found (left <= index <= right).
+	  * @param sampling true to start with Floyd-Rivest sampling; false to use median-of-medians pivots only.
+	  */
+	private static void select(double[] input, int left, int right, int index, boolean sampling) {
+		while (right > left) {
+			int size = right - left + 1;
+			int pivotIndex;
+			if (sampling) {
+				// large range -> recursively select from a sample around index, so that element at index is a good pivot
+				if (right - left > FLOYD_RIVEST_SAMPLE_THRESHOLD) {
+					double n = right - left + 1;
+					double i = index - left + 1;
+					double z = Math.log(n);
+					double s = 0.5 * Math.exp(2 * z / 3);
+					double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+					int sampleLeft = (int) Math.max(left, index - i * s / n + sd);
+					int sampleRight = (int) Math.min(right, index + (n - i) * s / n + sd);
+					select(input, sampleLeft, sampleRight, index, true);
+				}
+				pivotIndex = index;
+			}
+			else {
+				pivotIndex = medianOfMedians(input, left, right);
+			}
+			
+			int partitionIndex = partition(input, left, right, pivotIndex);
+			
+			// continue in the part which contains index
+			if (partitionIndex <= index) left = partitionIndex + 1;
+			if (partitionIndex >= index) right = partitionIndex - 1;
+			
+			// range did not shrink by a constant factor -> median-of-medians pivots from now on (total work stays geometric)
+			if (4L * (right - left + 1) > 3L * size) sampling = false;
+		}
+	}
+	
+	/** Partitions range [left, right] around element at pivotIndex (Hoare-style, equal elements stop both scans). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @param pivotIndex index of pivot element.
+	  * @return index of pivot element which is now in correct sorted position.
+	  */
+	private static int partition(double[] input, int left, int right, int pivotIndex) {
+		double pivot = input[pivotIndex];
+		
+		// pivot to left end, greater of the two ends to the right end -> both scans are guarded
+		arraySwap(input, left, pivotIndex);
+		if (Double.compare(input[right], pivot) > 0) arraySwap(input, right, left);
+		
+		int i = left, j = right, swaps = 0;
+		while (i < j) {
+			arraySwap(input, i++, j--);
+			swaps++;
+			while (Double.compare(input[i], pivot) < 0) i++;
+			while (Double.compare(input[j], pivot) > 0) j--;
+		}
+		
+		// move pivot to its final position
+		if (Double.compare(input[left], pivot) == 0) {
+			arraySwap(input, left, j);
+		}
+		else {
+			arraySwap(input, ++j, right);
+		}
+		OperationStats.recordPartition(right - left + 1, swaps + 2, j - left, right - j);
+		return j;
+	}
+	
+	/** Finds median-of-medians pivot within range [left, right] (guarantees at least 30% of elements on each side). 
+	  * @param input non-empty array.
+	  * @param left starting index (inclusive).
+	  * @param right ending index (inclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int medianOfMedians(double[] input, int left, int right) {
+		// medians of groups of 5 are moved to the beginning of the range
+		int medians = 0;
+		for (int from = left; from <= right; from += 5) {
+			int to = Math.min(from + 4, right);
+			insertionSort(input, from, to);
+			arraySwap(input, (from + to)>>>1, left + medians++);
+		}
+		
+		// median of medians (deterministic selection)
+		int median = left + (medians - 1) / 2;
+		select(input, left, left + medians - 1, median, false);
+		return median;
+	}
+	
+	/** Sorts range [from, to] using insertion sort (used for groups of 5). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (inclusive).
+	  */
+	private static void insertionSort(double[] input, int from, int to) {
+		for (int i = from + 1; i <= to; i++) {
+			double item = input[i];
+			int j = i - 1;
+			while (j >= from && Double.compare(input[j], item) > 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Utility method to swap two elements in an array. 
+	  * @param array array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(double[] array, int swapIndex1, int swapIndex2) {
+		double temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+
+	/** Performs quick select algorithm with parallel (fork-join) three-way partitioning of very large ranges.
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * Ranges larger than the parallel threshold are partitioned by counting and scattering chunks in parallel, 
+	  * remaining range is handled by {@link #floydRivestSelect(double[], int)}. Input is reordered. 
+	  * @param input non-empty array in which k-th largest element is searched for.
+	  * @param k rank of element to be found. 
+	  * @return k-th largest element. 
+	  * @throws IllegalArgumentException if input contains no elements or k is invalid.
+	  */
+	public static double parallelQuickSelect(double[] input, int k) {
+		// input validation
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+		
+		int kSortedIndex = input.length - k;
+		int from = 0, to = input.length;
+		double[] aux = to > PARALLEL_SELECT_THRESHOLD ? new double[to] : null;
+		
+		while (to - from > PARALLEL_SELECT_THRESHOLD) {
+			// median of 3 random elements as pivot
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int a = random.nextInt(from, to), b = random.nextInt(from, to), c = random.nextInt(from, to);
+			double pivot = median(input[a], input[b], input[c]);
+			
+			// count elements less than and equal to pivot in each chunk
+			final int start = from, end = to;
+			int chunks = (end - start + PARALLEL_SELECT_CHUNK - 1) / PARALLEL_SELECT_CHUNK;
+			int[] less = new int[chunks + 1];
+			int[] equal = new int[chunks + 1];
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int lessCount = 0, equalCount = 0;
+				for (int i = start + chunk * PARALLEL_SELECT_CHUNK, last = Math.min(i + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					lessCount += Double.compare(input[i], pivot) < 0 ? 1 : 0;
+					equalCount += Double.compare(input[i], pivot) == 0 ? 1 : 0;
+				}
+				less[chunk + 1] = lessCount;
+				equal[chunk + 1] = equalCount;
+			});
+			
+			// prefix sums -> starting position of each chunk within less / equal / greater parts
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				less[chunk + 1] += less[chunk];
+				equal[chunk + 1] += equal[chunk];
+			}
+			final int lessTotal = less[chunks], equalTotal = equal[chunks];
+			
+			// scatter into aux ([less | equal | greater]) and copy partitioned range back
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				int lessIndex = start + less[chunk];
+				int equalIndex = start + lessTotal + equal[chunk];
+				int greaterIndex = start + lessTotal + equalTotal + (chunkStart - start) - less[chunk] - equal[chunk];
+				for (int i = chunkStart, last = Math.min(chunkStart + PARALLEL_SELECT_CHUNK, end); i < last; i++) {
+					double item = input[i];
+					if (Double.compare(item, pivot) < 0) aux[lessIndex++] = item;
+					else if (Double.compare(item, pivot) == 0) aux[equalIndex++] = item;
+					else aux[greaterIndex++] = item;
+				}
+			});
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int chunkStart = start + chunk * PARALLEL_SELECT_CHUNK;
+				System.arraycopy(aux, chunkStart, input, chunkStart, Math.min(PARALLEL_SELECT_CHUNK, end - chunkStart));
+			});
+			
+			// continue in the part which contains k-th largest
+			if (kSortedIndex < start + lessTotal) {
+				to = start + lessTotal;
+			}
+			else if (kSortedIndex < start + lessTotal + equalTotal) {
+				return pivot;
+			}
+			else {
+				from = start + lessTotal + equalTotal;
+			}
+		}
+		
+		select(input, from, to - 1, kSortedIndex, true);
+		return input[kSortedIndex];
+	}
+	
+	/** Utility method to return median of three values. 
+	  * @param a first value.
+	  * @param b second value.
+	  * @param c third value.
+	  * @return median value.
+	  */
+	private static double median(double a, double b, double c) {
+		if (Double.compare(a, b) < 0) {
+			if (Double.compare(b, c) < 0) return b;
+			return Double.compare(a, c) < 0 ? c : a;
+		}
+		if (Double.compare(a, c) < 0) return a;
+		return Double.compare(b, c) < 0 ? c : b;
+	}
+	
 	private static void inputValidOrThrow(Object[] input, int k) {
-		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
-		if (k < 1 || k > input.length) throw new IllegalArgumentException("k must be between 1 and array length");
+		inputValidOrThrow(input == null ? 0 : input.length, k);
+	}
+	
+	private static void inputValidOrThrow(int length, int k) {
+		if (length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (k < 1 || k > length) throw new IllegalArgumentException("k must be between 1 and array length");
 	}
 }
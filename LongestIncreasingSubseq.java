@@ -6,10 +6,12 @@
  * DP(i+1) = 1 + max{DP(j)} for all j up to i (0 <= j <= i) where seq(i+1) > seq(j)
  * DP(0) = 1 (base case)
  * 
- * Time complexity: 	O(n * total)
- * Space complexity: 	O(total)
- * 		n -> number of available coins
- * 		total -> coin values target sum
+ * Patience sorting variant keeps only the smallest tail of increasing subsequences of each length
+ * (tails are sorted -> binary search) and predecessor links for reconstruction of the subsequence. 
+ * 
+ * Time complexity: 	O(n^2) dynamic programming, O(n log n) patience sorting
+ * Space complexity: 	O(n)
+ * 		n -> length of sequence
  * 
  * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
  *
@@ -17,12 +19,17 @@
 
 package com.mgazdovic.algo.dp;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mgazdovic.algo.vector.VectorOps;
+
 public class LongestIncreasingSubseq {
 
-	/** Finds minimum number of coins required to get the desired total. 
-	  * @param coins non-empty array of allowed coin values.
-	  * @param total desired value to be reached by adding individual coins. 
-	  * @return minimum number of coins required to get the desired total (returns -1 if solution not found). 
+	/** Finds length of longest (strictly) increasing subsequence (dynamic programming, O(n^2)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @return length of longest increasing subsequence. 
 	  * @throws IllegalArgumentException if input contains no elements.
 	  */
 	public static int solve (int[] sequence) {
@@ -49,15 +56,285 @@ public class LongestIncreasingSubseq {
 		return getMax(dp);
 	}
 	
+	/** Finds length of LIS using patience sorting (binary search over tails, O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return length of longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static int solve(int[] sequence, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], strict);
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		return length;
+	}
+	
+	/** Finds one longest increasing subsequence using patience sorting with predecessor links (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return indexes (ascending) of elements forming a longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static int[] findIndexes(int[] sequence, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		// predecessor of each element within best subsequence ending with it (-1 if none)
+		int[] previous = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], strict);
+			previous[i] = position > 0 ? tails[position - 1] : -1;
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		
+		// follow predecessor links back from the tail of the longest subsequence
+		int[] indexes = new int[length];
+		for (int i = length - 1, index = tails[length - 1]; i >= 0; i--, index = previous[index]) {
+			indexes[i] = index;
+		}
+		return indexes;
+	}
+	
+	/** Finds values of one longest increasing subsequence (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return elements forming a longest increasing subsequence (in sequence order). 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static int[] findSubsequence(int[] sequence, boolean strict) {
+		int[] indexes = findIndexes(sequence, strict);
+		int[] values = new int[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			values[i] = sequence[indexes[i]];
+		}
+		return values;
+	}
+	
+	/** Binary search over tails -> finds position of first tail not less than (strict) or greater than (non-strict) item. 
+	  * @param sequence sequence of elements.
+	  * @param tails indexes of tail elements (tail values are sorted).
+	  * @param length number of tails.
+	  * @param item current element.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return position in tails which is replaced by (or extended with) item.
+	  */
+	private static int tailPosition(int[] sequence, int[] tails, int length, int item, boolean strict) {
+		int from = 0, to = length;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			int tail = sequence[tails[current]];
+			if (tail < item || (!strict && tail == item)) {
+				from = current + 1;
+			}
+			else {
+				to = current;
+			}
+		}
+		return from;
+	}
+
+	/** Finds length of LIS using patience sorting (binary search over tails, O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return length of longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static int solve(long[] sequence, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], strict);
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		return length;
+	}
+	
+	/** Finds one longest increasing subsequence using patience sorting with predecessor links (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return indexes (ascending) of elements forming a longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static int[] findIndexes(long[] sequence, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		// predecessor of each element within best subsequence ending with it (-1 if none)
+		int[] previous = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], strict);
+			previous[i] = position > 0 ? tails[position - 1] : -1;
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		
+		// follow predecessor links back from the tail of the longest subsequence
+		int[] indexes = new int[length];
+		for (int i = length - 1, index = tails[length - 1]; i >= 0; i--, index = previous[index]) {
+			indexes[i] = index;
+		}
+		return indexes;
+	}
+	
+	/** Finds values of one longest increasing subsequence (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return elements forming a longest increasing subsequence (in sequence order). 
+	  * @throws IllegalArgumentException if input contains no elements.
+	  */
+	public static long[] findSubsequence(long[] sequence, boolean strict) {
+		int[] indexes = findIndexes(sequence, strict);
+		long[] values = new long[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			values[i] = sequence[indexes[i]];
+		}
+		return values;
+	}
+	
+	/** Binary search over tails -> finds position of first tail not less than (strict) or greater than (non-strict) item. 
+	  * @param sequence sequence of elements.
+	  * @param tails indexes of tail elements (tail values are sorted).
+	  * @param length number of tails.
+	  * @param item current element.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return position in tails which is replaced by (or extended with) item.
+	  */
+	private static int tailPosition(long[] sequence, int[] tails, int length, long item, boolean strict) {
+		int from = 0, to = length;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			long tail = sequence[tails[current]];
+			if (tail < item || (!strict && tail == item)) {
+				from = current + 1;
+			}
+			else {
+				to = current;
+			}
+		}
+		return from;
+	}
+
+	/** Finds length of LIS using patience sorting (binary search over tails, O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param comparator comparator defining element order.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return length of longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements or comparator is null.
+	  */
+	public static <T> int solve(T[] sequence, Comparator<? super T> comparator, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], comparator, strict);
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		return length;
+	}
+	
+	/** Finds one longest increasing subsequence using patience sorting with predecessor links (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param comparator comparator defining element order.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return indexes (ascending) of elements forming a longest increasing subsequence. 
+	  * @throws IllegalArgumentException if input contains no elements or comparator is null.
+	  */
+	public static <T> int[] findIndexes(T[] sequence, Comparator<? super T> comparator, boolean strict) {
+		// input validation
+		if (sequence == null || sequence.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		
+		// tails[len] -> index of smallest element ending an increasing subsequence of length len + 1
+		int[] tails = new int[sequence.length];
+		// predecessor of each element within best subsequence ending with it (-1 if none)
+		int[] previous = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int position = tailPosition(sequence, tails, length, sequence[i], comparator, strict);
+			previous[i] = position > 0 ? tails[position - 1] : -1;
+			tails[position] = i;
+			if (position == length) length++;
+		}
+		
+		// follow predecessor links back from the tail of the longest subsequence
+		int[] indexes = new int[length];
+		for (int i = length - 1, index = tails[length - 1]; i >= 0; i--, index = previous[index]) {
+			indexes[i] = index;
+		}
+		return indexes;
+	}
+	
+	/** Finds elements of one longest increasing subsequence (O(n log n)). 
+	  * @param sequence non-empty sequence of elements.
+	  * @param comparator comparator defining element order.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return elements forming a longest increasing subsequence (in sequence order). 
+	  * @throws IllegalArgumentException if input contains no elements or comparator is null.
+	  */
+	public static <T> List<T> findSubsequence(T[] sequence, Comparator<? super T> comparator, boolean strict) {
+		int[] indexes = findIndexes(sequence, comparator, strict);
+		List<T> values = new ArrayList<>(indexes.length);
+		for (int index : indexes) {
+			values.add(sequence[index]);
+		}
+		return values;
+	}
+	
+	/** Binary search over tails -> finds position of first tail not less than (strict) or greater than (non-strict) item. 
+	  * @param sequence sequence of elements.
+	  * @param tails indexes of tail elements (tail values are sorted).
+	  * @param length number of tails.
+	  * @param item current element.
+	  * @param comparator comparator defining element order.
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @return position in tails which is replaced by (or extended with) item.
+	  */
+	private static <T> int tailPosition(T[] sequence, int[] tails, int length, T item, Comparator<? super T> comparator, boolean strict) {
+		int from = 0, to = length;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			T tail = sequence[tails[current]];
+			if (comparator.compare(tail, item) < 0 || (!strict && comparator.compare(tail, item) == 0)) {
+				from = current + 1;
+			}
+			else {
+				to = current;
+			}
+		}
+		return from;
+	}
+	
 	/** Utility method to return maximum element from an input array.  
 	  * @param array non-empty array. 
 	  * @return maximum element in a given array. 
 	  */
 	private static int getMax(int[] array) {
-		int max = 0;
-		for (int i = 0; i < array.length; i++) {
-			max = Math.max(array[i], max); 
-		}
-		return max;
+		// SIMD max scan if available
+		return VectorOps.max(array, 0, array.length);
 	}
 }
@@ -0,0 +1,201 @@
+/**
+ * This file contains an online (incremental) longest increasing subsequence tracker for appended sequences.
+ * Tracker keeps patience sorting state (smallest tail of increasing subsequences of each length and predecessor links),
+ * so every appended element costs a single binary search over tails instead of a full recompute.
+ *
+ * Optional sliding window keeps only the most recent elements. Evicting the oldest element invalidates tails
+ * (all subsequences are shifted), so state is rebuilt lazily from the window on the next query -> appends stay O(1)
+ * while evicting and the rebuild cost is paid at most once per query.
+ * Tracker is not thread-safe.
+ *
+ * Time complexity: 	O(log n) append, O(1) length, O(L) snapshot (+ O(w log w) rebuild after eviction)
+ * Space complexity: 	O(n) unbounded, O(w) windowed
+ * 		n -> number of appended elements
+ * 		w -> window size
+ * 		L -> length of longest increasing subsequence
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.dp;
+
+import java.util.Arrays;
+
+public class LongestIncreasingSubseqTracker {
+
+	// initial capacity of unbounded tracker
+	private static final int INITIAL_CAPACITY = 16;
+
+	// true for strictly increasing subsequence; false for non-decreasing subsequence
+	private final boolean strict;
+	// maximum number of kept elements (0 -> unbounded)
+	private final int window;
+	// ring buffer of kept elements (oldest at head)
+	private long[] values;
+	// predecessor (logical index) of each element within best subsequence ending with it (-1 if none)
+	private int[] previous;
+	// tails[len] -> logical index of smallest element ending an increasing subsequence of length len + 1
+	private int[] tails;
+	// physical position of oldest kept element
+	private int head;
+	// number of kept elements
+	private int size;
+	// number of tails (length of longest increasing subsequence)
+	private int length;
+	// true if an element was evicted since the last rebuild
+	private boolean stale;
+
+	/** Creates unbounded tracker (all appended elements are kept).
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  */
+	public LongestIncreasingSubseqTracker(boolean strict) {
+		this.strict = strict;
+		this.window = 0;
+		this.values = new long[INITIAL_CAPACITY];
+		this.previous = new int[INITIAL_CAPACITY];
+		this.tails = new int[INITIAL_CAPACITY];
+	}
+
+	/** Creates sliding window tracker (only the most recent elements are kept).
+	  * @param strict true for strictly increasing subsequence; false for non-decreasing subsequence.
+	  * @param window maximum number of kept elements.
+	  * @throws IllegalArgumentException if window is not positive.
+	  */
+	public LongestIncreasingSubseqTracker(boolean strict, int window) {
+		// input validation
+		if (window < 1) throw new IllegalArgumentException("Window must be a positive number");
+
+		this.strict = strict;
+		this.window = window;
+		this.values = new long[window];
+		this.previous = new int[window];
+		this.tails = new int[window];
+	}
+
+	/** Appends element to the tracked sequence (evicts the oldest element if window is full).
+	  * @param value appended element.
+	  */
+	public void append(long value) {
+		if (window > 0 && size == window) {
+			// evict oldest element -> logical indexes shift, state is rebuilt on next query
+			values[head] = value;
+			head = head + 1 == window ? 0 : head + 1;
+			stale = true;
+			return;
+		}
+		if (size == values.length) grow();
+		values[physical(size)] = value;
+		size++;
+		if (!stale) extend(size - 1);
+	}
+
+	/** Appends all elements to the tracked sequence.
+	  * @param values appended elements (in sequence order).
+	  */
+	public void appendAll(long[] values) {
+		for (long value : values) {
+			append(value);
+		}
+	}
+
+	/** Returns length of longest increasing subsequence of kept elements.
+	  * @return length of longest increasing subsequence (0 if no elements are kept).
+	  */
+	public int length() {
+		if (stale) rebuild();
+		return length;
+	}
+
+	/** Returns number of kept elements (window size once window is full).
+	  * @return number of kept elements.
+	  */
+	public int size() {
+		return size;
+	}
+
+	/** Returns values of one longest increasing subsequence of kept elements.
+	  * @return elements forming a longest increasing subsequence (in sequence order, empty if no elements are kept).
+	  */
+	public long[] snapshot() {
+		int[] indexes = snapshotIndexes();
+		long[] subsequence = new long[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			subsequence[i] = values[physical(indexes[i])];
+		}
+		return subsequence;
+	}
+
+	/** Returns positions of one longest increasing subsequence of kept elements.
+	  * @return indexes (ascending) of elements forming a longest increasing subsequence, relative to the oldest kept element.
+	  */
+	public int[] snapshotIndexes() {
+		if (stale) rebuild();
+
+		// follow predecessor links back from the tail of the longest subsequence
+		int[] indexes = new int[length];
+		for (int i = length - 1, index = length > 0 ? tails[length - 1] : -1; i >= 0; i--, index = previous[physical(index)]) {
+			indexes[i] = index;
+		}
+		return indexes;
+	}
+
+	/** Removes all elements from the tracker.
+	  */
+	public void clear() {
+		head = 0;
+		size = 0;
+		length = 0;
+		stale = false;
+	}
+
+	/** Extends patience sorting state with a single element (binary search over tails).
+	  * @param index logical index of appended element.
+	  */
+	private void extend(int index) {
+		long item = values[physical(index)];
+		int from = 0, to = length;
+		while (from < to) {
+			int current = (from+to)>>>1;
+			long tail = values[physical(tails[current])];
+			if (tail < item || (!strict && tail == item)) {
+				from = current + 1;
+			}
+			else {
+				to = current;
+			}
+		}
+		previous[physical(index)] = from > 0 ? tails[from - 1] : -1;
+		tails[from] = index;
+		if (from == length) length++;
+	}
+
+	/** Rebuilds patience sorting state from all kept elements.
+	  */
+	private void rebuild() {
+		length = 0;
+		for (int i = 0; i < size; i++) {
+			extend(i);
+		}
+		stale = false;
+	}
+
+	/** Maps logical index (0 -> oldest kept element) to position in ring buffer.
+	  * @param index logical index.
+	  * @return position in ring buffer.
+	  */
+	private int physical(int index) {
+		int position = head + index;
+		return position >= values.length ? position - values.length : position;
+	}
+
+	/** Doubles capacity of unbounded tracker (elements are never evicted -> head stays at 0).
+	  */
+	private void grow() {
+		int capacity = values.length << 1;
+		if (capacity < 0) throw new IllegalStateException("Tracker capacity exceeded");
+		values = Arrays.copyOf(values, capacity);
+		previous = Arrays.copyOf(previous, capacity);
+		tails = Arrays.copyOf(tails, capacity);
+	}
+}
@@ -4,8 +4,17 @@
  * The collect value for each position is given in the input grid.
  * The task is to find the maximum possible value obtained from the given grid in one grid pass from top left to bottom right. 
  * 
+ * Memory-lean variants keep a single rolling row of subproblem solutions (accumulated in long -> no overflow). 
+ * Optimal path is reconstructed with Hirschberg-style divide and conquer: best values from the top left corner 
+ * to the middle row and from the bottom right corner back to the row below it choose the column where the path 
+ * crosses the middle, then both halves are solved recursively (only two rows are kept at any time). 
+ * Streaming variants consume rows one at a time (row iterator or memory-mapped little-endian int32 grid file), 
+ * so grid never has to be materialized in memory. 
+ * Parallel variant splits grid into square tiles and computes them as an anti-diagonal wavefront on a fork-join pool -> 
+ * a tile starts as soon as the tiles above and to the left of it are done (tiles on the same anti-diagonal run in parallel). 
+ * 
  * Time complexity: 	O(m*n)
- * Space complexity: 	O(m*n)
+ * Space complexity: 	O(m*n) full table, O(n) rolling row, O(m+n) path reconstruction
  * 		m -> number of rows in a grid
  * 		n -> number of columns in a grid
  * 
@@ -15,10 +24,33 @@
 
 package com.mgazdovic.algo.dp;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntBinaryOperator;
+
 public class MaxCollect {
 	
+	// move to the next column
+	public static final char RIGHT = 'R';
+	// move to the next row
+	public static final char DOWN = 'D';
+	// maximum size of a single memory-mapped region of grid file
+	private static final long MAPPED_REGION_SIZE = 1L << 30;
+	// default tile side for parallel solver (tile row of longs and ints fits into L1 cache)
+	public static final int DEFAULT_TILE_SIZE = 256;
+	
 	/** Finds maximum collect in a single path through a grid. 
-	  * @param grid non-empty array of allowed coin values.
+	  * @param grid non-empty rectangular grid of collect values.
 	  * @return maximum achievable collect value.  
 	  * @throws IllegalArgumentException if grid is invalid (empty or contains no elements).
 	  */
@@ -38,13 +70,379 @@ public class MaxCollect {
 		// bottom-up grid progression (top left -> bottom right)
 		for(int r = 0; r < m; r++) {
 			for (int c = 0; c < n; c++) {
-				fromUp = r > 0 ? dp[r - 1][c] : 0;
-				fromLeft = c > 0 ? dp[r][c - 1] : 0;
+				// only existing neighbours (first row and column have a single predecessor)
+				fromUp = r > 0 ? dp[r - 1][c] : Integer.MIN_VALUE;
+				fromLeft = c > 0 ? dp[r][c - 1] : Integer.MIN_VALUE;
 				
 				// choose best so far and add current position's value
-				dp[r][c] = Math.max(fromUp, fromLeft) + grid[r][c];
+				dp[r][c] = (r == 0 && c == 0 ? 0 : Math.max(fromUp, fromLeft)) + grid[r][c];
 			}
 		}
 		return dp[m-1][n-1];
 	}
+	
+	/** Finds maximum collect in a single path through a grid keeping a single rolling row (O(n) memory). 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @return maximum achievable collect value (accumulated in long -> no overflow).  
+	  * @throws IllegalArgumentException if grid is invalid (empty, contains no elements or rows differ in length).
+	  */
+	public static long solveLong(int[][] grid) {
+		// input validation
+		gridValidOrThrow(grid);
+		
+		// rolling row -> row[c] holds best collect up to (r - 1, c) before and (r, c) after it is updated
+		long[] row = new long[grid[0].length];
+		forward(grid, 0, grid.length - 1, 0, grid[0].length - 1, row);
+		return row[row.length - 1];
+	}
+	
+	/** Finds maximum collect in a single path through a grid using tiled wavefront on the common fork-join pool. 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @return maximum achievable collect value (same as solveLong; same as solve unless its int result overflows).  
+	  * @throws IllegalArgumentException if grid is invalid (empty, contains no elements or rows differ in length).
+	  */
+	public static long parallelSolve(int[][] grid) {
+		return parallelSolve(grid, DEFAULT_TILE_SIZE);
+	}
+	
+	/** Finds maximum collect in a single path through a grid using tiled wavefront on the common fork-join pool. 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @param tileSize side of square tiles computed by a single task.
+	  * @return maximum achievable collect value (same as solveLong; same as solve unless its int result overflows).  
+	  * @throws IllegalArgumentException if grid is invalid or tile size is not positive.
+	  */
+	public static long parallelSolve(int[][] grid, int tileSize) {
+		return parallelSolve(grid, tileSize, ForkJoinPool.commonPool());
+	}
+	
+	/** Finds maximum collect in a single path through a grid using tiled wavefront on given fork-join pool. 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @param tileSize side of square tiles computed by a single task.
+	  * @param pool fork-join pool executing tile tasks.
+	  * @return maximum achievable collect value (same as solveLong; same as solve unless its int result overflows).  
+	  * @throws IllegalArgumentException if grid is invalid, tile size is not positive or pool is null.
+	  */
+	public static long parallelSolve(int[][] grid, int tileSize, ForkJoinPool pool) {
+		// input validation
+		gridValidOrThrow(grid);
+		if (tileSize < 1) throw new IllegalArgumentException("Tile size must be a positive number");
+		if (pool == null) throw new IllegalArgumentException("Pool cannot be null");
+		
+		int m = grid.length;
+		int n = grid[0].length;
+		// single tile -> no parallelism
+		if (m <= tileSize && n <= tileSize) return solveLong(grid);
+		
+		int tileRows = (m + tileSize - 1) / tileSize;
+		int tileColumns = (n + tileSize - 1) / tileSize;
+		// number of unfinished predecessors (above, left) of each tile
+		AtomicIntegerArray pending = new AtomicIntegerArray(tileRows * tileColumns);
+		for (int i = 0; i < tileRows; i++) {
+			for (int j = 0; j < tileColumns; j++) {
+				pending.set(i * tileColumns + j, (i > 0 ? 1 : 0) + (j > 0 ? 1 : 0));
+			}
+		}
+		// bottom[c] -> best value of the last computed cell in column c, right[r] -> of the last computed cell in row r
+		long[] bottom = new long[n];
+		long[] right = new long[m];
+		pool.invoke(new TileTask(null, grid, bottom, right, pending, tileSize, tileRows, tileColumns, 0, 0));
+		return bottom[n - 1];
+	}
+	
+	/** Finds maximum collect in a single path through a grid streamed row by row (O(n) memory). 
+	  * Iterator may reuse the same array for every row (row is fully consumed before the next one is requested). 
+	  * @param rows non-empty iterator over grid rows (top to bottom) of equal length.
+	  * @return maximum achievable collect value (accumulated in long -> no overflow).  
+	  * @throws IllegalArgumentException if grid is invalid (empty, contains no elements or rows differ in length).
+	  */
+	public static long solveLong(Iterator<int[]> rows) {
+		// input validation
+		if (rows == null || !rows.hasNext()) throw new IllegalArgumentException("Grid must contain at least one element");
+		
+		int[] values = rows.next();
+		if (values == null || values.length == 0) throw new IllegalArgumentException("Grid must contain at least one element");
+		long[] row = new long[values.length];
+		rollRow(row, values, 0, row.length - 1, true);
+		while (rows.hasNext()) {
+			values = rows.next();
+			if (values == null || values.length != row.length) throw new IllegalArgumentException("Grid rows must be of equal length");
+			rollRow(row, values, 0, row.length - 1, false);
+		}
+		return row[row.length - 1];
+	}
+	
+	/** Finds maximum collect in a single path through a grid stored in a file (O(n) memory). 
+	  * File holds grid values as little-endian int32 in row-major order and is memory-mapped in regions of whole rows. 
+	  * @param file grid file.
+	  * @param columns number of columns in a grid.
+	  * @return maximum achievable collect value (accumulated in long -> no overflow).  
+	  * @throws IllegalArgumentException if columns is not positive or file size is not a positive multiple of row size.
+	  * @throws IOException if file cannot be read.
+	  */
+	public static long solveFile(Path file, int columns) throws IOException {
+		// input validation
+		if (columns < 1) throw new IllegalArgumentException("Grid must contain at least one element");
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long rowSize = (long) columns * Integer.BYTES;
+			long fileSize = channel.size();
+			if (fileSize == 0 || fileSize % rowSize != 0) throw new IllegalArgumentException("Grid file size must be a positive multiple of row size");
+			if (rowSize > MAPPED_REGION_SIZE) throw new IllegalArgumentException("Grid row exceeds mapped region size");
+			
+			// region -> as many whole rows as fit into mapped region size
+			long regionSize = MAPPED_REGION_SIZE / rowSize * rowSize;
+			long[] row = new long[columns];
+			int[] values = new int[columns];
+			boolean first = true;
+			for (long position = 0; position < fileSize; position += regionSize) {
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, fileSize - position));
+				IntBuffer ints = region.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+				while (ints.hasRemaining()) {
+					ints.get(values);
+					rollRow(row, values, 0, columns - 1, first);
+					first = false;
+				}
+			}
+			return row[columns - 1];
+		}
+	}
+	
+	/** Writes a grid file (little-endian int32, row-major) readable by solveFile, e.g. as a test fixture. 
+	  * @param file grid file (created or truncated).
+	  * @param rows number of rows in a grid.
+	  * @param columns number of columns in a grid.
+	  * @param valueAt collect value for given row and column.
+	  * @throws IllegalArgumentException if number of rows or columns is not positive.
+	  * @throws IOException if file cannot be written.
+	  */
+	public static void writeGridFile(Path file, int rows, int columns, IntBinaryOperator valueAt) throws IOException {
+		// input validation
+		if (rows < 1 || columns < 1) throw new IllegalArgumentException("Grid must contain at least one element");
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(columns * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			for (int r = 0; r < rows; r++) {
+				buffer.clear();
+				for (int c = 0; c < columns; c++) {
+					buffer.putInt(valueAt.applyAsInt(r, c));
+				}
+				buffer.flip();
+				while (buffer.hasRemaining()) channel.write(buffer);
+			}
+		}
+	}
+	
+	/** Finds moves of an optimal path through a grid using Hirschberg-style divide and conquer (O(m+n) memory). 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @return moves (RIGHT or DOWN) of a maximum collect path from top left to bottom right (m+n-2 moves).  
+	  * @throws IllegalArgumentException if grid is invalid (empty, contains no elements or rows differ in length).
+	  */
+	public static char[] solvePath(int[][] grid) {
+		// input validation
+		gridValidOrThrow(grid);
+		
+		int m = grid.length;
+		int n = grid[0].length;
+		char[] moves = new char[m + n - 2];
+		long[] fromStart = new long[n];
+		long[] toEnd = new long[n];
+		solvePath(grid, 0, m - 1, 0, n - 1, moves, fromStart, toEnd);
+		return moves;
+	}
+	
+	/** Sums collect values along the given path (e.g. path found by solvePath). 
+	  * @param grid non-empty rectangular grid of collect values.
+	  * @param moves moves (RIGHT or DOWN) from top left to bottom right.
+	  * @return collect value of the path.  
+	  * @throws IllegalArgumentException if grid is invalid or moves do not lead from top left to bottom right.
+	  */
+	public static long pathValue(int[][] grid, char[] moves) {
+		// input validation
+		gridValidOrThrow(grid);
+		if (moves == null || moves.length != grid.length + grid[0].length - 2) throw new IllegalArgumentException("Path must lead from top left to bottom right");
+		
+		int r = 0, c = 0;
+		long value = grid[0][0];
+		for (char move : moves) {
+			if (move == RIGHT) c++;
+			else if (move == DOWN) r++;
+			else throw new IllegalArgumentException("Unknown move: " + move);
+			if (r >= grid.length || c >= grid[0].length) throw new IllegalArgumentException("Path must lead from top left to bottom right");
+			value += grid[r][c];
+		}
+		return value;
+	}
+	
+	/** Recursive step of path reconstruction -> finds where the path crosses the middle row of the subgrid. 
+	  * @param grid grid of collect values.
+	  * @param top first row of subgrid (path start).
+	  * @param bottom last row of subgrid (path end).
+	  * @param left first column of subgrid (path start).
+	  * @param right last column of subgrid (path end).
+	  * @param moves moves of the whole path (move leaving cell (r, c) is stored at index r + c).
+	  * @param fromStart buffer for best values from the subgrid start.
+	  * @param toEnd buffer for best values to the subgrid end.
+	  */
+	private static void solvePath(int[][] grid, int top, int bottom, int left, int right, char[] moves, long[] fromStart, long[] toEnd) {
+		// single row -> only moves right are left
+		if (top == bottom) {
+			for (int c = left; c < right; c++) moves[top + c] = RIGHT;
+			return;
+		}
+		
+		int middle = (top + bottom) >>> 1;
+		forward(grid, top, middle, left, right, fromStart);
+		backward(grid, middle + 1, bottom, left, right, toEnd);
+		
+		// column where path moves down from the middle row
+		int cross = left;
+		for (int c = left + 1; c <= right; c++) {
+			if (fromStart[c] + toEnd[c] > fromStart[cross] + toEnd[cross]) cross = c;
+		}
+		
+		solvePath(grid, top, middle, left, cross, moves, fromStart, toEnd);
+		moves[middle + cross] = DOWN;
+		solvePath(grid, middle + 1, bottom, cross, right, moves, fromStart, toEnd);
+	}
+	
+	/** Best collect values from (top, left) to every cell of the bottom row of subgrid (rolling row). 
+	  * @param grid grid of collect values.
+	  * @param top first row of subgrid.
+	  * @param bottom last row of subgrid.
+	  * @param left first column of subgrid.
+	  * @param right last column of subgrid.
+	  * @param row rolling row -> holds best values to (bottom, c) for left <= c <= right on return.
+	  */
+	private static void forward(int[][] grid, int top, int bottom, int left, int right, long[] row) {
+		for (int r = top; r <= bottom; r++) {
+			rollRow(row, grid[r], left, right, r == top);
+		}
+	}
+	
+	/** Rolls best collect values one row down (row[c] holds value of the row above on entry and of current row on return). 
+	  * @param row rolling row.
+	  * @param values collect values of current row.
+	  * @param left first column.
+	  * @param right last column.
+	  * @param first true if current row is the first one (no row above).
+	  */
+	private static void rollRow(long[] row, int[] values, int left, int right, boolean first) {
+		// first column has a single predecessor (up)
+		row[left] = (first ? 0 : row[left]) + values[left];
+		for (int c = left + 1; c <= right; c++) {
+			// row[c] still holds the value from the row above
+			long fromUp = first ? Long.MIN_VALUE : row[c];
+			row[c] = Math.max(fromUp, row[c - 1]) + values[c];
+		}
+	}
+	
+	/** Best collect values from every cell of the top row of subgrid to (bottom, right) (rolling row, reversed direction). 
+	  * @param grid grid of collect values.
+	  * @param top first row of subgrid.
+	  * @param bottom last row of subgrid.
+	  * @param left first column of subgrid.
+	  * @param right last column of subgrid.
+	  * @param row rolling row -> holds best values from (top, c) for left <= c <= right on return.
+	  */
+	private static void backward(int[][] grid, int top, int bottom, int left, int right, long[] row) {
+		for (int r = bottom; r >= top; r--) {
+			int[] values = grid[r];
+			// last column has a single successor (down)
+			row[right] = (r < bottom ? row[right] : 0) + values[right];
+			for (int c = right - 1; c >= left; c--) {
+				// row[c] still holds the value from the row below
+				long fromDown = r < bottom ? row[c] : Long.MIN_VALUE;
+				row[c] = Math.max(fromDown, row[c + 1]) + values[c];
+			}
+		}
+	}
+	
+	/** Computes best collect values of a single tile in place (reads and updates column and row boundaries). 
+	  * @param grid grid of collect values.
+	  * @param bottom best value of the cell above the tile in each column on entry, of the bottom tile row on return.
+	  * @param right best value of the cell left of the tile in each row on entry, of the right tile column on return.
+	  * @param top first row of tile.
+	  * @param last last row of tile.
+	  * @param left first column of tile.
+	  * @param end last column of tile.
+	  */
+	private static void solveTile(int[][] grid, long[] bottom, long[] right, int top, int last, int left, int end) {
+		for (int r = top; r <= last; r++) {
+			int[] values = grid[r];
+			// first tile column -> only existing neighbours (first row and column have a single predecessor)
+			long current;
+			if (r == 0) current = left > 0 ? right[r] : 0;
+			else current = left > 0 ? Math.max(bottom[left], right[r]) : bottom[left];
+			current += values[left];
+			bottom[left] = current;
+			
+			// remaining tile columns -> bottom[c] still holds the value from the row above
+			if (r == 0) {
+				for (int c = left + 1; c <= end; c++) {
+					current += values[c];
+					bottom[c] = current;
+				}
+			}
+			else {
+				for (int c = left + 1; c <= end; c++) {
+					current = Math.max(bottom[c], current) + values[c];
+					bottom[c] = current;
+				}
+			}
+			right[r] = current;
+		}
+	}
+	
+	/** Validates grid -> throws exception if grid is empty, contains no elements or rows differ in length. 
+	  * @param grid grid of collect values.
+	  * @throws IllegalArgumentException if grid is invalid.
+	  */
+	private static void gridValidOrThrow(int[][] grid) {
+		if (grid == null || grid.length == 0 || grid[0] == null || grid[0].length == 0) throw new IllegalArgumentException("Grid must contain at least one element");
+		for (int[] row : grid) {
+			if (row == null || row.length != grid[0].length) throw new IllegalArgumentException("Grid rows must be of equal length");
+		}
+	}
+	
+	// Fork-join task which computes a single tile, then forks tiles below and to the right of it once all their predecessors are done.
+	private static class TileTask extends CountedCompleter<Void> {
+		private static final long serialVersionUID = 1L;
+		
+		final int[][] grid;
+		final long[] bottom, right;
+		final AtomicIntegerArray pending;
+		final int tileSize, tileRows, tileColumns, tileRow, tileColumn;
+		
+		TileTask(CountedCompleter<?> parent, int[][] grid, long[] bottom, long[] right, AtomicIntegerArray pending, 
+				int tileSize, int tileRows, int tileColumns, int tileRow, int tileColumn) {
+			super(parent);
+			this.grid = grid;
+			this.bottom = bottom;
+			this.right = right;
+			this.pending = pending;
+			this.tileSize = tileSize;
+			this.tileRows = tileRows;
+			this.tileColumns = tileColumns;
+			this.tileRow = tileRow;
+			this.tileColumn = tileColumn;
+		}
+		
+		@Override
+		public void compute() {
+			int top = tileRow * tileSize;
+			int left = tileColumn * tileSize;
+			solveTile(grid, bottom, right, top, Math.min(top + tileSize, grid.length) - 1, left, Math.min(left + tileSize, grid[0].length) - 1);
+			
+			// successor is ready once its last predecessor is done
+			if (tileRow + 1 < tileRows && pending.decrementAndGet((tileRow + 1) * tileColumns + tileColumn) == 0) {
+				addToPendingCount(1);
+				new TileTask(this, grid, bottom, right, pending, tileSize, tileRows, tileColumns, tileRow + 1, tileColumn).fork();
+			}
+			if (tileColumn + 1 < tileColumns && pending.decrementAndGet(tileRow * tileColumns + tileColumn + 1) == 0) {
+				addToPendingCount(1);
+				new TileTask(this, grid, bottom, right, pending, tileSize, tileRows, tileColumns, tileRow, tileColumn + 1).fork();
+			}
+			tryComplete();
+		}
+	}
 }
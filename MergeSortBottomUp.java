@@ -2,8 +2,14 @@
  * This file contains an implementation of bottom-up merge sort. 
  * Merge sort is a famous divide-and-conquer sorting algorithm. 
  * This is a fun optimization over a simple recursive solution which avoids the recursion overhead using bottom-up approach.
+ * Parallel mode spreads independent merges of each pass (and halves of large merges) over a fork-join pool.
+ * Natural mode (caller-owned buffer) merges runs already present in input, ping-pongs passes between input and buffer
+ * and allocates nothing, so it can be called repeatedly on nearly sorted batches without producing garbage.
+ * Merges of subarrays which are already in order are skipped in every mode.
  * 
- * Time complexity: 	O(n log n)
+ * Merge passes of sequential sorts are recorded by OperationStats (no-op unless operation counting is switched on).
+ * 
+ * Time complexity: 	O(n log n), O(n) for presorted input in natural mode
  * Space complexity: 	O(n)
  * 		n -> size of array to be sorted
  * 
@@ -13,38 +19,154 @@
 
 package com.mgazdovic.algo.sorting;
 
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import com.mgazdovic.algo.stats.OperationStats;
+
 public class MergeSortBottomUp {
 	
+	// default size of ranges which are sorted / merged sequentially in parallel mode
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+	
+	// minimum length of runs merged by natural merge sort (shorter runs are extended by insertion sort)
+	private static final int MIN_RUN = 32;
+	
 	/** Performs bottom-up merge sort algorithm. 
 	  * @param input non-empty array to be sorted.
 	  * @throws IllegalArgumentException if input is null or contains no elements.
 	  */
 	public static <T extends Comparable<T>> void sort(T[] input) {
+		sort(input, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs bottom-up merge sort algorithm using given comparator (stable). 
+	  * @param input non-empty array to be sorted.
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or comparator is null).
+	  */
+	public static <T> void sort(T[] input, Comparator<? super T> comparator) {
 		// input validation
 		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
 		
 		final int N = input.length;
 		T[] aux = input.clone();
+		comparator = OperationStats.counting(comparator);
 		
 		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
-		for (int size = 1; size < N; size *= 2)
-			for (int i = 0; i < N; i += 2*size)	
-				merge(input, aux, i, i + size, Math.min(i + 2*size, N));
+		for (int size = 1; size < N; size *= 2) {
+			long moves = 0;
+			for (int i = 0; i < N - size; i += 2*size) {
+				// subarrays already in order -> nothing to merge
+				if (comparator.compare(input[i + size - 1], input[i + size]) <= 0) continue;
+				int to = Math.min(i + 2*size, N);
+				merge(input, aux, i, i + size, to, comparator);
+				moves += 2L * (to - i);
+			}
+			// comparator counts its own comparisons
+			OperationStats.recordMergePass(0, moves);
+		}
 		
-		assert isSorted(input, 0, N);
+		assert isSorted(input, 0, N, comparator);
+	}
+
+	/** Performs parallel bottom-up merge sort algorithm (fork-join) using default sequential threshold.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static <T extends Comparable<T>> void parallelSort(T[] input) {
+		parallelSort(input, DEFAULT_PARALLEL_THRESHOLD, Comparator.<T>naturalOrder());
+	}
+
+	/** Performs parallel bottom-up merge sort algorithm (fork-join).
+	  * Independent merges within each pass are run in parallel and large merges are further split
+	  * by binary searching split points. Sort is stable and produces the same output as {@link #sort(Object[], Comparator)}.
+	  * @param input non-empty array to be sorted.
+	  * @param threshold size of ranges which are sorted / merged sequentially (must be positive).
+	  * @throws IllegalArgumentException if input is null or contains no elements or threshold is invalid.
+	  */
+	public static <T extends Comparable<T>> void parallelSort(T[] input, int threshold) {
+		parallelSort(input, threshold, Comparator.<T>naturalOrder());
 	}
 	
+	/** Performs parallel bottom-up merge sort algorithm (fork-join) using given comparator (stable).
+	  * @param input non-empty array to be sorted.
+	  * @param threshold size of ranges which are sorted / merged sequentially (must be positive).
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements, threshold is invalid or comparator is null.
+	  */
+	public static <T> void parallelSort(T[] input, int threshold, Comparator<? super T> comparator) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (threshold < 1) throw new IllegalArgumentException("Threshold must be a positive number");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+
+		final int N = input.length;
+		T[] aux = input.clone();
+
+		// small input -> no point in forking
+		if (N <= threshold) {
+			sort(input, aux, 0, N, comparator);
+			return;
+		}
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+
+		// sort blocks of size threshold sequentially (blocks are sorted in parallel)
+		pool.invoke(new BlockSortTask<>(input, aux, 0, (N + threshold - 1) / threshold, threshold, comparator));
+
+		// merge all sorted subarrays of size threshold, 2*threshold, ... -> N
+		// (ping-pong between input and aux -> no copying within passes)
+		T[] src = input, dst = aux;
+		for (long size = threshold; size < N; size *= 2) {
+			int width = (int) size;
+			int merges = (int) ((N + 2*size - 1) / (2*size));
+			pool.invoke(new MergePassTask<>(src, dst, 0, merges, width, threshold, comparator));
+
+			T[] temp = src;
+			src = dst;
+			dst = temp;
+		}
+
+		// sorted result ended up in aux -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+
+		assert isSorted(input, 0, N, comparator);
+	}
+
+	/** Sorts range [from, to> using bottom-up merge sort (sequential).
+	  * @param input non-empty array to be sorted.
+	  * @param aux auxiliary array for merge routine.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void sort(T[] input, T[] aux, int from, int to, Comparator<? super T> comparator) {
+		for (int size = 1; size < to - from; size *= 2)
+			for (int i = from; i < to - size; i += 2*size)
+				// subarrays already in order -> nothing to merge
+				if (comparator.compare(input[i + size - 1], input[i + size]) > 0)
+					merge(input, aux, i, i + size, Math.min(i + 2*size, to), comparator);
+	}
+
 	/** Merges sorted subarrays [from, mid> and [mid, to> into a sorted array [from, to>
 	  * @param input non-empty array to be sorted.
 	  * @param aux auxiliary array for merge routine.
 	  * @param from starting index for first subarray (inclusive).
 	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
 	  * @param to ending index for second subarray (exclusive).
+	  * @param comparator comparator defining element order.
 	  */
-	private static <T extends Comparable<T>> void merge (T[] input, T[] aux, int from, int mid, int to) {
+	private static <T> void merge (T[] input, T[] aux, int from, int mid, int to, Comparator<? super T> comparator) {
 	
-		assert isSorted(input, from, mid);	// first subarray
-		assert isSorted(input, mid, to);	// second subarray
+		assert isSorted(input, from, mid, comparator);	// first subarray
+		assert isSorted(input, mid, to, comparator);	// second subarray
 		
 		// prepare auxiliary array
 		for (int i = from; i < to; i++) {
@@ -62,7 +184,7 @@ public class MergeSortBottomUp {
 				input[sortedIndex++] = aux[firstIndex++];
 			}
 			// both subarrays not done -> take smaller element
-			else if (aux[firstIndex].compareTo(aux[secondIndex]) <= 0) {
+			else if (comparator.compare(aux[firstIndex], aux[secondIndex]) <= 0) {
 				input[sortedIndex++] = aux[firstIndex++];
 			}
 			else {
@@ -70,16 +192,17 @@ public class MergeSortBottomUp {
 			}
 		}
 		
-		assert isSorted(input, from, to);
+		assert isSorted(input, from, to, comparator);
 	}
 	
 	/** Method to check if input array is sorted between [from, to>
 	  * @param input non-empty array to be checked.
 	  * @param from starting index (inclusive).
 	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
 	  * @throws IllegalArgumentException if input is not valid (null or invalid indexes). 
 	  */
-	private static <T extends Comparable<T>> boolean isSorted(T[] input, int from, int to) {
+	private static <T> boolean isSorted(T[] input, int from, int to, Comparator<? super T> comparator) {
 		// input validation
 		if (input == null) throw new IllegalArgumentException("Input cannot be null");
 		if (from < 0 || to > input.length) throw new IllegalArgumentException("Index out of bounds");
@@ -87,10 +210,1117 @@ public class MergeSortBottomUp {
 				
 		// check if any subsequent pair violates (ascending) sorted order
 		for (int i = from + 1; i < to; i++) {
-			if (input[i].compareTo(input[i-1]) < 0) return false;
+			if (comparator.compare(input[i], input[i-1]) < 0) return false;
 		}
 		
 		// no violations found
 		return true;
 	}
+
+	/** Performs bottom-up merge sort algorithm on primitive array (no boxing).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(int[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		final int N = input.length;
+		int[] aux = new int[N];
+		
+		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
+		for (int size = 1; size < N; size *= 2) {
+			long comparisons = 0, moves = 0;
+			for (int i = 0; i < N - size; i += 2*size) {
+				// subarrays already in order -> nothing to merge
+				comparisons++;
+				if (input[i + size - 1] <= input[i + size]) continue;
+				int to = Math.min(i + 2*size, N);
+				comparisons += merge(input, aux, i, i + size, to);
+				moves += 2L * (to - i);
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Merges sorted primitive subarrays [from, mid> and [mid, to> into a sorted array [from, to>
+	  * @param input non-empty array to be sorted.
+	  * @param aux auxiliary array for merge routine.
+	  * @param from starting index for first subarray (inclusive).
+	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
+	  * @param to ending index for second subarray (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int merge(int[] input, int[] aux, int from, int mid, int to) {
+		// prepare auxiliary array
+		System.arraycopy(input, from, aux, from, to - from);
+		
+		// merge routine
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first subarray wins ties -> stable)
+			if (aux[firstIndex] <= aux[secondIndex]) {
+				input[sortedIndex++] = aux[firstIndex++];
+			}
+			else {
+				input[sortedIndex++] = aux[secondIndex++];
+			}
+		}
+		// copy remaining (second subarray remainder is already in place)
+		System.arraycopy(aux, firstIndex, input, sortedIndex, mid - firstIndex);
+		
+		// one comparison per element taken before either subarray was done
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Method to check if primitive array is sorted between [from, to>
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static boolean isSorted(int[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs bottom-up merge sort algorithm on primitive array (no boxing).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(long[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		final int N = input.length;
+		long[] aux = new long[N];
+		
+		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
+		for (int size = 1; size < N; size *= 2) {
+			long comparisons = 0, moves = 0;
+			for (int i = 0; i < N - size; i += 2*size) {
+				// subarrays already in order -> nothing to merge
+				comparisons++;
+				if (input[i + size - 1] <= input[i + size]) continue;
+				int to = Math.min(i + 2*size, N);
+				comparisons += merge(input, aux, i, i + size, to);
+				moves += 2L * (to - i);
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Merges sorted primitive subarrays [from, mid> and [mid, to> into a sorted array [from, to>
+	  * @param input non-empty array to be sorted.
+	  * @param aux auxiliary array for merge routine.
+	  * @param from starting index for first subarray (inclusive).
+	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
+	  * @param to ending index for second subarray (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int merge(long[] input, long[] aux, int from, int mid, int to) {
+		// prepare auxiliary array
+		System.arraycopy(input, from, aux, from, to - from);
+		
+		// merge routine
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first subarray wins ties -> stable)
+			if (aux[firstIndex] <= aux[secondIndex]) {
+				input[sortedIndex++] = aux[firstIndex++];
+			}
+			else {
+				input[sortedIndex++] = aux[secondIndex++];
+			}
+		}
+		// copy remaining (second subarray remainder is already in place)
+		System.arraycopy(aux, firstIndex, input, sortedIndex, mid - firstIndex);
+		
+		// one comparison per element taken before either subarray was done
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Method to check if primitive array is sorted between [from, to>
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static boolean isSorted(long[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs bottom-up merge sort algorithm on primitive array (no boxing).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(double[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		final int N = input.length;
+		double[] aux = new double[N];
+		
+		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
+		for (int size = 1; size < N; size *= 2) {
+			long comparisons = 0, moves = 0;
+			for (int i = 0; i < N - size; i += 2*size) {
+				// subarrays already in order -> nothing to merge
+				comparisons++;
+				if (Double.compare(input[i + size - 1], input[i + size]) <= 0) continue;
+				int to = Math.min(i + 2*size, N);
+				comparisons += merge(input, aux, i, i + size, to);
+				moves += 2L * (to - i);
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Merges sorted primitive subarrays [from, mid> and [mid, to> into a sorted array [from, to>
+	  * @param input non-empty array to be sorted.
+	  * @param aux auxiliary array for merge routine.
+	  * @param from starting index for first subarray (inclusive).
+	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
+	  * @param to ending index for second subarray (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int merge(double[] input, double[] aux, int from, int mid, int to) {
+		// prepare auxiliary array
+		System.arraycopy(input, from, aux, from, to - from);
+		
+		// merge routine
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first subarray wins ties -> stable)
+			if (Double.compare(aux[firstIndex], aux[secondIndex]) <= 0) {
+				input[sortedIndex++] = aux[firstIndex++];
+			}
+			else {
+				input[sortedIndex++] = aux[secondIndex++];
+			}
+		}
+		// copy remaining (second subarray remainder is already in place)
+		System.arraycopy(aux, firstIndex, input, sortedIndex, mid - firstIndex);
+		
+		// one comparison per element taken before either subarray was done
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Method to check if primitive array is sorted between [from, to>
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static boolean isSorted(double[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			if (Double.compare(input[i], input[i-1]) < 0) return false;
+		}
+		return true;
+	}
+
+	/** Performs natural merge sort on primitive array using caller-owned scratch buffer (stable, allocates nothing).
+	  * Ascending runs already present in input are merged as they are (strictly descending runs are reversed first),
+	  * runs shorter than MIN_RUN are extended by insertion sort and merge passes alternate between input and buffer
+	  * (no copying back within passes). Presorted (or reverse sorted) input is sorted by a single scan -> O(n).
+	  * @param input non-empty array to be sorted.
+	  * @param buffer scratch array at least as long as input (its contents are overwritten; may be reused between calls).
+	  * @throws IllegalArgumentException if input is null or contains no elements, buffer is null or too short.
+	  */
+	public static void sort(int[] input, int[] buffer) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (buffer == null || buffer.length < input.length) throw new IllegalArgumentException("Buffer must be at least as long as input");
+		
+		final int N = input.length;
+		
+		// single run -> already sorted
+		if (prepareRuns(input, N) == 1) return;
+		
+		// merge pairs of adjacent runs (ping-pong between input and buffer) until a single run is left
+		int[] src = input, dst = buffer;
+		int runs;
+		do {
+			long comparisons = 0, moves = 0;
+			runs = 0;
+			for (int from = 0; from < N; runs++) {
+				// run boundaries are found again by scanning (merged runs may also join their neighbours)
+				int mid = runEnd(src, from, N);
+				int to = mid < N ? runEnd(src, mid, N) : N;
+				comparisons += (to - from) + mergeRuns(src, dst, from, mid, to);
+				moves += to - from;
+				from = to;
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+			
+			int[] temp = src;
+			src = dst;
+			dst = temp;
+		} while (runs > 1);
+		
+		// sorted result ended up in buffer -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Turns [0, N> into sorted runs of at least MIN_RUN elements (except the last one) in place.
+	  * @param input non-empty array to be sorted.
+	  * @param N number of elements.
+	  * @return number of runs.
+	  */
+	private static int prepareRuns(int[] input, int N) {
+		int runs = 0;
+		for (int from = 0; from < N; runs++) {
+			int to = from + 1;
+			if (to < N && input[to] < input[from]) {
+				// strictly descending run -> reverse (no equal elements swap places -> stable)
+				while (to < N && input[to] < input[to - 1]) to++;
+				reverse(input, from, to);
+			}
+			else {
+				while (to < N && input[to - 1] <= input[to]) to++;
+			}
+			
+			// short run -> extend it by insertion sort
+			if (to - from < MIN_RUN && to < N) {
+				int end = Math.min(from + MIN_RUN, N);
+				insertionSort(input, from, to, end);
+				to = end;
+			}
+			from = to;
+		}
+		return runs;
+	}
+	
+	/** Finds end of ascending run starting at index from.
+	  * @param input array containing the run.
+	  * @param from starting index of the run (inclusive).
+	  * @param N number of elements.
+	  * @return ending index of the run (exclusive).
+	  */
+	private static int runEnd(int[] input, int from, int N) {
+		int to = from + 1;
+		while (to < N && input[to - 1] <= input[to]) to++;
+		return to;
+	}
+	
+	/** Merges sorted ranges src[from, mid> and src[mid, to> into dst[from, to> (stable, src is not modified).
+	  * @param src array containing both sorted ranges.
+	  * @param dst array to which merged range is written.
+	  * @param from starting index for first range (inclusive).
+	  * @param mid ending index for first range (exclusive) and starting index for second range (inclusive).
+	  * @param to ending index for second range (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int mergeRuns(int[] src, int[] dst, int from, int mid, int to) {
+		// ranges already in order (or no second range) -> plain copy
+		if (mid == to || src[mid - 1] <= src[mid]) {
+			System.arraycopy(src, from, dst, from, to - from);
+			return 0;
+		}
+		
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first range wins ties -> stable)
+			if (src[firstIndex] <= src[secondIndex]) {
+				dst[sortedIndex++] = src[firstIndex++];
+			}
+			else {
+				dst[sortedIndex++] = src[secondIndex++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(src, firstIndex, dst, sortedIndex, mid - firstIndex);
+		System.arraycopy(src, secondIndex, dst, sortedIndex + mid - firstIndex, to - secondIndex);
+		
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Inserts elements of [sorted, to> one by one into sorted range [from, sorted> (stable).
+	  * @param input array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param sorted ending index of already sorted range (exclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(int[] input, int from, int sorted, int to) {
+		for (int i = sorted; i < to; i++) {
+			int item = input[i];
+			int j = i - 1;
+			while (j >= from && item < input[j]) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Reverses range [from, to> in place.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void reverse(int[] input, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			int temp = input[i];
+			input[i] = input[j];
+			input[j] = temp;
+		}
+	}
+
+	/** Performs natural merge sort on primitive array using caller-owned scratch buffer (stable, allocates nothing).
+	  * Ascending runs already present in input are merged as they are (strictly descending runs are reversed first),
+	  * runs shorter than MIN_RUN are extended by insertion sort and merge passes alternate between input and buffer
+	  * (no copying back within passes). Presorted (or reverse sorted) input is sorted by a single scan -> O(n).
+	  * @param input non-empty array to be sorted.
+	  * @param buffer scratch array at least as long as input (its contents are overwritten; may be reused between calls).
+	  * @throws IllegalArgumentException if input is null or contains no elements, buffer is null or too short.
+	  */
+	public static void sort(long[] input, long[] buffer) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (buffer == null || buffer.length < input.length) throw new IllegalArgumentException("Buffer must be at least as long as input");
+		
+		final int N = input.length;
+		
+		// single run -> already sorted
+		if (prepareRuns(input, N) == 1) return;
+		
+		// merge pairs of adjacent runs (ping-pong between input and buffer) until a single run is left
+		long[] src = input, dst = buffer;
+		int runs;
+		do {
+			long comparisons = 0, moves = 0;
+			runs = 0;
+			for (int from = 0; from < N; runs++) {
+				// run boundaries are found again by scanning (merged runs may also join their neighbours)
+				int mid = runEnd(src, from, N);
+				int to = mid < N ? runEnd(src, mid, N) : N;
+				comparisons += (to - from) + mergeRuns(src, dst, from, mid, to);
+				moves += to - from;
+				from = to;
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+			
+			long[] temp = src;
+			src = dst;
+			dst = temp;
+		} while (runs > 1);
+		
+		// sorted result ended up in buffer -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Turns [0, N> into sorted runs of at least MIN_RUN elements (except the last one) in place.
+	  * @param input non-empty array to be sorted.
+	  * @param N number of elements.
+	  * @return number of runs.
+	  */
+	private static int prepareRuns(long[] input, int N) {
+		int runs = 0;
+		for (int from = 0; from < N; runs++) {
+			int to = from + 1;
+			if (to < N && input[to] < input[from]) {
+				// strictly descending run -> reverse (no equal elements swap places -> stable)
+				while (to < N && input[to] < input[to - 1]) to++;
+				reverse(input, from, to);
+			}
+			else {
+				while (to < N && input[to - 1] <= input[to]) to++;
+			}
+			
+			// short run -> extend it by insertion sort
+			if (to - from < MIN_RUN && to < N) {
+				int end = Math.min(from + MIN_RUN, N);
+				insertionSort(input, from, to, end);
+				to = end;
+			}
+			from = to;
+		}
+		return runs;
+	}
+	
+	/** Finds end of ascending run starting at index from.
+	  * @param input array containing the run.
+	  * @param from starting index of the run (inclusive).
+	  * @param N number of elements.
+	  * @return ending index of the run (exclusive).
+	  */
+	private static int runEnd(long[] input, int from, int N) {
+		int to = from + 1;
+		while (to < N && input[to - 1] <= input[to]) to++;
+		return to;
+	}
+	
+	/** Merges sorted ranges src[from, mid> and src[mid, to> into dst[from, to> (stable, src is not modified).
+	  * @param src array containing both sorted ranges.
+	  * @param dst array to which merged range is written.
+	  * @param from starting index for first range (inclusive).
+	  * @param mid ending index for first range (exclusive) and starting index for second range (inclusive).
+	  * @param to ending index for second range (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int mergeRuns(long[] src, long[] dst, int from, int mid, int to) {
+		// ranges already in order (or no second range) -> plain copy
+		if (mid == to || src[mid - 1] <= src[mid]) {
+			System.arraycopy(src, from, dst, from, to - from);
+			return 0;
+		}
+		
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first range wins ties -> stable)
+			if (src[firstIndex] <= src[secondIndex]) {
+				dst[sortedIndex++] = src[firstIndex++];
+			}
+			else {
+				dst[sortedIndex++] = src[secondIndex++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(src, firstIndex, dst, sortedIndex, mid - firstIndex);
+		System.arraycopy(src, secondIndex, dst, sortedIndex + mid - firstIndex, to - secondIndex);
+		
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Inserts elements of [sorted, to> one by one into sorted range [from, sorted> (stable).
+	  * @param input array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param sorted ending index of already sorted range (exclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(long[] input, int from, int sorted, int to) {
+		for (int i = sorted; i < to; i++) {
+			long item = input[i];
+			int j = i - 1;
+			while (j >= from && item < input[j]) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Reverses range [from, to> in place.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void reverse(long[] input, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			long temp = input[i];
+			input[i] = input[j];
+			input[j] = temp;
+		}
+	}
+
+	/** Performs natural merge sort on primitive array using caller-owned scratch buffer (stable, allocates nothing).
+	  * Ascending runs already present in input are merged as they are (strictly descending runs are reversed first),
+	  * runs shorter than MIN_RUN are extended by insertion sort and merge passes alternate between input and buffer
+	  * (no copying back within passes). Presorted (or reverse sorted) input is sorted by a single scan -> O(n).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array to be sorted.
+	  * @param buffer scratch array at least as long as input (its contents are overwritten; may be reused between calls).
+	  * @throws IllegalArgumentException if input is null or contains no elements, buffer is null or too short.
+	  */
+	public static void sort(double[] input, double[] buffer) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (buffer == null || buffer.length < input.length) throw new IllegalArgumentException("Buffer must be at least as long as input");
+		
+		final int N = input.length;
+		
+		// single run -> already sorted
+		if (prepareRuns(input, N) == 1) return;
+		
+		// merge pairs of adjacent runs (ping-pong between input and buffer) until a single run is left
+		double[] src = input, dst = buffer;
+		int runs;
+		do {
+			long comparisons = 0, moves = 0;
+			runs = 0;
+			for (int from = 0; from < N; runs++) {
+				// run boundaries are found again by scanning (merged runs may also join their neighbours)
+				int mid = runEnd(src, from, N);
+				int to = mid < N ? runEnd(src, mid, N) : N;
+				comparisons += (to - from) + mergeRuns(src, dst, from, mid, to);
+				moves += to - from;
+				from = to;
+			}
+			OperationStats.recordMergePass(comparisons, moves);
+			
+			double[] temp = src;
+			src = dst;
+			dst = temp;
+		} while (runs > 1);
+		
+		// sorted result ended up in buffer -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+		
+		assert isSorted(input, 0, N);
+	}
+	
+	/** Turns [0, N> into sorted runs of at least MIN_RUN elements (except the last one) in place.
+	  * @param input non-empty array to be sorted.
+	  * @param N number of elements.
+	  * @return number of runs.
+	  */
+	private static int prepareRuns(double[] input, int N) {
+		int runs = 0;
+		for (int from = 0; from < N; runs++) {
+			int to = from + 1;
+			if (to < N && Double.compare(input[to], input[from]) < 0) {
+				// strictly descending run -> reverse (no equal elements swap places -> stable)
+				while (to < N && Double.compare(input[to], input[to - 1]) < 0) to++;
+				reverse(input, from, to);
+			}
+			else {
+				while (to < N && Double.compare(input[to - 1], input[to]) <= 0) to++;
+			}
+			
+			// short run -> extend it by insertion sort
+			if (to - from < MIN_RUN && to < N) {
+				int end = Math.min(from + MIN_RUN, N);
+				insertionSort(input, from, to, end);
+				to = end;
+			}
+			from = to;
+		}
+		return runs;
+	}
+	
+	/** Finds end of ascending run starting at index from.
+	  * @param input array containing the run.
+	  * @param from starting index of the run (inclusive).
+	  * @param N number of elements.
+	  * @return ending index of the run (exclusive).
+	  */
+	private static int runEnd(double[] input, int from, int N) {
+		int to = from + 1;
+		while (to < N && Double.compare(input[to - 1], input[to]) <= 0) to++;
+		return to;
+	}
+	
+	/** Merges sorted ranges src[from, mid> and src[mid, to> into dst[from, to> (stable, src is not modified).
+	  * @param src array containing both sorted ranges.
+	  * @param dst array to which merged range is written.
+	  * @param from starting index for first range (inclusive).
+	  * @param mid ending index for first range (exclusive) and starting index for second range (inclusive).
+	  * @param to ending index for second range (exclusive).
+	  * @return number of element comparisons.
+	  */
+	private static int mergeRuns(double[] src, double[] dst, int from, int mid, int to) {
+		// ranges already in order (or no second range) -> plain copy
+		if (mid == to || Double.compare(src[mid - 1], src[mid]) <= 0) {
+			System.arraycopy(src, from, dst, from, to - from);
+			return 0;
+		}
+		
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first range wins ties -> stable)
+			if (Double.compare(src[firstIndex], src[secondIndex]) <= 0) {
+				dst[sortedIndex++] = src[firstIndex++];
+			}
+			else {
+				dst[sortedIndex++] = src[secondIndex++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(src, firstIndex, dst, sortedIndex, mid - firstIndex);
+		System.arraycopy(src, secondIndex, dst, sortedIndex + mid - firstIndex, to - secondIndex);
+		
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Inserts elements of [sorted, to> one by one into sorted range [from, sorted> (stable).
+	  * @param input array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param sorted ending index of already sorted range (exclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(double[] input, int from, int sorted, int to) {
+		for (int i = sorted; i < to; i++) {
+			double item = input[i];
+			int j = i - 1;
+			while (j >= from && Double.compare(item, input[j]) < 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Reverses range [from, to> in place.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void reverse(double[] input, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			double temp = input[i];
+			input[i] = input[j];
+			input[j] = temp;
+		}
+	}
+
+	/** Performs natural merge sort using given comparator and caller-owned scratch buffer (stable, allocates nothing).
+	  * Ascending runs already present in input are merged as they are (strictly descending runs are reversed first),
+	  * runs shorter than MIN_RUN are extended by insertion sort and merge passes alternate between input and buffer
+	  * (no copying back within passes). Presorted (or reverse sorted) input is sorted by a single scan -> O(n).
+	  * @param input non-empty array to be sorted.
+	  * @param buffer scratch array at least as long as input (its contents are overwritten; may be reused between calls).
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements, buffer is null or too short or comparator is null.
+	  */
+	public static <T> void sort(T[] input, T[] buffer, Comparator<? super T> comparator) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (buffer == null || buffer.length < input.length) throw new IllegalArgumentException("Buffer must be at least as long as input");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		
+		final int N = input.length;
+		comparator = OperationStats.counting(comparator);
+		
+		// single run -> already sorted
+		if (prepareRuns(input, N, comparator) == 1) return;
+		
+		// merge pairs of adjacent runs (ping-pong between input and buffer) until a single run is left
+		T[] src = input, dst = buffer;
+		int runs;
+		do {
+			long moves = 0;
+			runs = 0;
+			for (int from = 0; from < N; runs++) {
+				// run boundaries are found again by scanning (merged runs may also join their neighbours)
+				int mid = runEnd(src, from, N, comparator);
+				int to = mid < N ? runEnd(src, mid, N, comparator) : N;
+				mergeRuns(src, dst, from, mid, to, comparator);
+				moves += to - from;
+				from = to;
+			}
+			// comparator counts its own comparisons
+			OperationStats.recordMergePass(0, moves);
+			
+			T[] temp = src;
+			src = dst;
+			dst = temp;
+		} while (runs > 1);
+		
+		// sorted result ended up in buffer -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+		
+		assert isSorted(input, 0, N, comparator);
+	}
+	
+	/** Turns [0, N> into sorted runs of at least MIN_RUN elements (except the last one) in place.
+	  * @param input non-empty array to be sorted.
+	  * @param N number of elements.
+	  * @param comparator comparator defining element order.
+	  * @return number of runs.
+	  */
+	private static <T> int prepareRuns(T[] input, int N, Comparator<? super T> comparator) {
+		int runs = 0;
+		for (int from = 0; from < N; runs++) {
+			int to = from + 1;
+			if (to < N && comparator.compare(input[to], input[from]) < 0) {
+				// strictly descending run -> reverse (no equal elements swap places -> stable)
+				while (to < N && comparator.compare(input[to], input[to - 1]) < 0) to++;
+				reverse(input, from, to);
+			}
+			else {
+				while (to < N && comparator.compare(input[to - 1], input[to]) <= 0) to++;
+			}
+			
+			// short run -> extend it by insertion sort
+			if (to - from < MIN_RUN && to < N) {
+				int end = Math.min(from + MIN_RUN, N);
+				insertionSort(input, from, to, end, comparator);
+				to = end;
+			}
+			from = to;
+		}
+		return runs;
+	}
+	
+	/** Finds end of ascending run starting at index from.
+	  * @param input array containing the run.
+	  * @param from starting index of the run (inclusive).
+	  * @param N number of elements.
+	  * @param comparator comparator defining element order.
+	  * @return ending index of the run (exclusive).
+	  */
+	private static <T> int runEnd(T[] input, int from, int N, Comparator<? super T> comparator) {
+		int to = from + 1;
+		while (to < N && comparator.compare(input[to - 1], input[to]) <= 0) to++;
+		return to;
+	}
+	
+	/** Merges sorted ranges src[from, mid> and src[mid, to> into dst[from, to> (stable, src is not modified).
+	  * @param src array containing both sorted ranges.
+	  * @param dst array to which merged range is written.
+	  * @param from starting index for first range (inclusive).
+	  * @param mid ending index for first range (exclusive) and starting index for second range (inclusive).
+	  * @param to ending index for second range (exclusive).
+	  * @param comparator comparator defining element order.
+	  * @return number of element comparisons.
+	  */
+	private static <T> int mergeRuns(T[] src, T[] dst, int from, int mid, int to, Comparator<? super T> comparator) {
+		// ranges already in order (or no second range) -> plain copy
+		if (mid == to || comparator.compare(src[mid - 1], src[mid]) <= 0) {
+			System.arraycopy(src, from, dst, from, to - from);
+			return 0;
+		}
+		
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller element (first range wins ties -> stable)
+			if (comparator.compare(src[firstIndex], src[secondIndex]) <= 0) {
+				dst[sortedIndex++] = src[firstIndex++];
+			}
+			else {
+				dst[sortedIndex++] = src[secondIndex++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(src, firstIndex, dst, sortedIndex, mid - firstIndex);
+		System.arraycopy(src, secondIndex, dst, sortedIndex + mid - firstIndex, to - secondIndex);
+		
+		return (firstIndex - from) + (secondIndex - mid);
+	}
+	
+	/** Inserts elements of [sorted, to> one by one into sorted range [from, sorted> (stable).
+	  * @param input array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param sorted ending index of already sorted range (exclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void insertionSort(T[] input, int from, int sorted, int to, Comparator<? super T> comparator) {
+		for (int i = sorted; i < to; i++) {
+			T item = input[i];
+			int j = i - 1;
+			while (j >= from && comparator.compare(item, input[j]) < 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Reverses range [from, to> in place.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static <T> void reverse(T[] input, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			T temp = input[i];
+			input[i] = input[j];
+			input[j] = temp;
+		}
+	}
+
+	/** Performs bottom-up merge sort algorithm ordering elements by int key (stable). 
+	  * Keys are extracted only once per element and moved together with elements (no key recomputation while sorting).
+	  * @param input non-empty array to be sorted.
+	  * @param key function extracting sort key from an element.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or key function is null).
+	  */
+	public static <T> void sortByIntKey(T[] input, ToIntFunction<? super T> key) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		final int N = input.length;
+		
+		// extract keys once
+		int[] keys = new int[N];
+		for (int i = 0; i < N; i++) {
+			keys[i] = key.applyAsInt(input[i]);
+		}
+		int[] auxKeys = new int[N];
+		T[] aux = input.clone();
+		
+		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
+		for (int size = 1; size < N; size *= 2)
+			for (int i = 0; i < N - size; i += 2*size)
+				merge(keys, input, auxKeys, aux, i, i + size, Math.min(i + 2*size, N));
+		
+		assert isSorted(keys, 0, N);
+	}
+	
+	/** Merges sorted key subarrays [from, mid> and [mid, to> into a sorted array [from, to> (items are moved in lockstep).
+	  * @param keys non-empty array of keys to be sorted.
+	  * @param items array of elements which is reordered together with keys.
+	  * @param auxKeys auxiliary keys array for merge routine.
+	  * @param aux auxiliary items array for merge routine.
+	  * @param from starting index for first subarray (inclusive).
+	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
+	  * @param to ending index for second subarray (exclusive).
+	  */
+	private static <T> void merge(int[] keys, T[] items, int[] auxKeys, T[] aux, int from, int mid, int to) {
+		// prepare auxiliary arrays
+		System.arraycopy(keys, from, auxKeys, from, to - from);
+		System.arraycopy(items, from, aux, from, to - from);
+		
+		// merge routine
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller key (first subarray wins ties -> stable)
+			int index = auxKeys[firstIndex] <= auxKeys[secondIndex] ? firstIndex++ : secondIndex++;
+			keys[sortedIndex] = auxKeys[index];
+			items[sortedIndex++] = aux[index];
+		}
+		// copy remaining (second subarray remainder is already in place)
+		System.arraycopy(auxKeys, firstIndex, keys, sortedIndex, mid - firstIndex);
+		System.arraycopy(aux, firstIndex, items, sortedIndex, mid - firstIndex);
+	}
+
+	/** Performs bottom-up merge sort algorithm ordering elements by long key (stable). 
+	  * Keys are extracted only once per element and moved together with elements (no key recomputation while sorting).
+	  * @param input non-empty array to be sorted.
+	  * @param key function extracting sort key from an element.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or key function is null).
+	  */
+	public static <T> void sortByLongKey(T[] input, ToLongFunction<? super T> key) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		final int N = input.length;
+		
+		// extract keys once
+		long[] keys = new long[N];
+		for (int i = 0; i < N; i++) {
+			keys[i] = key.applyAsLong(input[i]);
+		}
+		long[] auxKeys = new long[N];
+		T[] aux = input.clone();
+		
+		// merge all sorted subarrays of size 1, 2, 4, ..., N/2 -> N
+		for (int size = 1; size < N; size *= 2)
+			for (int i = 0; i < N - size; i += 2*size)
+				merge(keys, input, auxKeys, aux, i, i + size, Math.min(i + 2*size, N));
+		
+		assert isSorted(keys, 0, N);
+	}
+	
+	/** Merges sorted key subarrays [from, mid> and [mid, to> into a sorted array [from, to> (items are moved in lockstep).
+	  * @param keys non-empty array of keys to be sorted.
+	  * @param items array of elements which is reordered together with keys.
+	  * @param auxKeys auxiliary keys array for merge routine.
+	  * @param aux auxiliary items array for merge routine.
+	  * @param from starting index for first subarray (inclusive).
+	  * @param mid ending index for first subarray (exclusive) and starting index for second subarray (inclusive).
+	  * @param to ending index for second subarray (exclusive).
+	  */
+	private static <T> void merge(long[] keys, T[] items, long[] auxKeys, T[] aux, int from, int mid, int to) {
+		// prepare auxiliary arrays
+		System.arraycopy(keys, from, auxKeys, from, to - from);
+		System.arraycopy(items, from, aux, from, to - from);
+		
+		// merge routine
+		int firstIndex = from, secondIndex = mid, sortedIndex = from;
+		while (firstIndex < mid && secondIndex < to) {
+			// take smaller key (first subarray wins ties -> stable)
+			int index = auxKeys[firstIndex] <= auxKeys[secondIndex] ? firstIndex++ : secondIndex++;
+			keys[sortedIndex] = auxKeys[index];
+			items[sortedIndex++] = aux[index];
+		}
+		// copy remaining (second subarray remainder is already in place)
+		System.arraycopy(auxKeys, firstIndex, keys, sortedIndex, mid - firstIndex);
+		System.arraycopy(aux, firstIndex, items, sortedIndex, mid - firstIndex);
+	}
+
+	/** Merges sorted ranges src[from1, to1> and src[from2, to2> into dst starting at index out (stable).
+	  * @param src array containing both sorted ranges.
+	  * @param dst array to which merged range is written.
+	  * @param from1 starting index for first range (inclusive).
+	  * @param to1 ending index for first range (exclusive).
+	  * @param from2 starting index for second range (inclusive).
+	  * @param to2 ending index for second range (exclusive).
+	  * @param out starting index of merged range in dst.
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void merge(T[] src, T[] dst, int from1, int to1, int from2, int to2, int out, Comparator<? super T> comparator) {
+		// both ranges not done -> take smaller element (first range wins ties -> stable)
+		while (from1 < to1 && from2 < to2) {
+			if (comparator.compare(src[from1], src[from2]) <= 0) {
+				dst[out++] = src[from1++];
+			}
+			else {
+				dst[out++] = src[from2++];
+			}
+		}
+		// copy remaining
+		System.arraycopy(src, from1, dst, out, to1 - from1);
+		System.arraycopy(src, from2, dst, out + to1 - from1, to2 - from2);
+	}
+
+	/** Finds first index in sorted range [from, to> whose element is greater than (or equal to, if inclusive) key.
+	  * @param input array containing sorted range.
+	  * @param key element which is used for comparison.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param inclusive true if elements equal to key should be skipped (upper bound); false otherwise (lower bound).
+	  * @param comparator comparator defining element order.
+	  * @return split index in range [from, to].
+	  */
+	private static <T> int splitIndex(T[] input, T key, int from, int to, boolean inclusive, Comparator<? super T> comparator) {
+		while (from < to) {
+			int current = (from+to)>>>1;
+			int cmp = comparator.compare(input[current], key);
+			if (cmp < 0 || (inclusive && cmp == 0)) {
+				from = current + 1;
+			}
+			else {
+				to = current;
+			}
+		}
+		return from;
+	}
+
+	// Fork-join task which sorts blocks [firstBlock, lastBlock> of given size sequentially.
+	private static class BlockSortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final T[] input, aux;
+		final int firstBlock, lastBlock, blockSize;
+		final Comparator<? super T> comparator;
+
+		BlockSortTask(T[] input, T[] aux, int firstBlock, int lastBlock, int blockSize, Comparator<? super T> comparator) {
+			this.input = input;
+			this.aux = aux;
+			this.firstBlock = firstBlock;
+			this.lastBlock = lastBlock;
+			this.blockSize = blockSize;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			// single block -> sort sequentially
+			if (lastBlock - firstBlock == 1) {
+				int from = firstBlock * blockSize;
+				sort(input, aux, from, Math.min(from + blockSize, input.length), comparator);
+				return;
+			}
+			// split blocks in half
+			int mid = (firstBlock + lastBlock)>>>1;
+			invokeAll(new BlockSortTask<>(input, aux, firstBlock, mid, blockSize, comparator),
+					new BlockSortTask<>(input, aux, mid, lastBlock, blockSize, comparator));
+		}
+	}
+
+	// Fork-join task which performs merges [firstMerge, lastMerge> of a single pass (subarrays of given size from src into dst).
+	private static class MergePassTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final T[] src, dst;
+		final int firstMerge, lastMerge, size, threshold;
+		final Comparator<? super T> comparator;
+
+		MergePassTask(T[] src, T[] dst, int firstMerge, int lastMerge, int size, int threshold, Comparator<? super T> comparator) {
+			this.src = src;
+			this.dst = dst;
+			this.firstMerge = firstMerge;
+			this.lastMerge = lastMerge;
+			this.size = size;
+			this.threshold = threshold;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			// single merge -> [from, mid> and [mid, to>
+			if (lastMerge - firstMerge == 1) {
+				final int N = src.length;
+				int from = (int) Math.min((long) firstMerge * 2 * size, N);
+				int mid = (int) Math.min((long) from + size, N);
+				int to = (int) Math.min((long) mid + size, N);
+				new MergeTask<>(src, dst, from, mid, mid, to, from, threshold, comparator).compute();
+				return;
+			}
+			// split merges in half
+			int mid = (firstMerge + lastMerge)>>>1;
+			invokeAll(new MergePassTask<>(src, dst, firstMerge, mid, size, threshold, comparator),
+					new MergePassTask<>(src, dst, mid, lastMerge, size, threshold, comparator));
+		}
+	}
+
+	// Fork-join task which merges src[from1, to1> and src[from2, to2> into dst starting at index out.
+	private static class MergeTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final T[] src, dst;
+		final int from1, to1, from2, to2, out, threshold;
+		final Comparator<? super T> comparator;
+
+		MergeTask(T[] src, T[] dst, int from1, int to1, int from2, int to2, int out, int threshold, Comparator<? super T> comparator) {
+			this.src = src;
+			this.dst = dst;
+			this.from1 = from1;
+			this.to1 = to1;
+			this.from2 = from2;
+			this.to2 = to2;
+			this.out = out;
+			this.threshold = threshold;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = to1 - from1, n2 = to2 - from2;
+
+			// small merge -> sequential
+			if (n1 + n2 <= threshold || n1 == 0 || n2 == 0) {
+				merge(src, dst, from1, to1, from2, to2, out, comparator);
+				return;
+			}
+
+			// split larger range at its middle element, binary search split point in the other one
+			// (equal elements from first range always end up before equal elements from second -> stable)
+			int split1, split2, next1, next2;
+			if (n1 >= n2) {
+				split1 = (from1 + to1)>>>1;
+				split2 = splitIndex(src, src[split1], from2, to2, false, comparator);
+				next1 = split1 + 1;
+				next2 = split2;
+			}
+			else {
+				split2 = (from2 + to2)>>>1;
+				split1 = splitIndex(src, src[split2], from1, to1, true, comparator);
+				next1 = split1;
+				next2 = split2 + 1;
+			}
+
+			// middle element goes directly to its final position
+			int outSplit = out + (split1 - from1) + (split2 - from2);
+			dst[outSplit] = n1 >= n2 ? src[split1] : src[split2];
+
+			invokeAll(new MergeTask<>(src, dst, from1, split1, from2, split2, out, threshold, comparator),
+					new MergeTask<>(src, dst, next1, to1, next2, to2, outSplit + 1, threshold, comparator));
+		}
+	}
 }
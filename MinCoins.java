@@ -6,8 +6,17 @@
  * DP(i) = min{DP(i-coins(j)) + 1}, minimum over each coin j in coins
  * DP(0) = 0 (base case)
  * 
- * Time complexity: 	O(n * total)
- * Space complexity: 	O(total)
+ * Solver object is built once per coin system and answers many totals. Its table is computed once and grown 
+ * lazily (only the missing totals are computed) when a larger total is requested, so a query is a table lookup. 
+ * Canonical coin systems (greedy is optimal for every total) are detected up front with the Kozen-Zaks bound 
+ * (smallest counterexample is below sum of the two largest coins) and answered greedily without a table. 
+ * 
+ * Bounded-memory variant keeps only a ring buffer of the last max(coin) solutions (DP(i) depends on nothing older). 
+ * Coins are sorted and deduplicated, and unreachable totals hold a large sentinel instead of a special value, 
+ * so the inner loop is a branch-free minimum (totals below 0 read sentinel slots of the ring buffer). 
+ * 
+ * Time complexity: 	O(n * total), O(1) table query
+ * Space complexity: 	O(total), O(max coin) bounded-memory variant
  * 		n -> number of distinct coins
  * 		total -> coin values target sum
  * 
@@ -21,6 +30,185 @@ import java.util.Arrays;
 
 public class MinCoins {
 	
+	// largest total checked for a greedy counterexample (larger coin systems are treated as non-canonical)
+	private static final int CANONICAL_CHECK_LIMIT = 1 << 22;
+	// marks unreachable total in solver table
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+	// unreachable total in bounded-memory variant (sentinel + total never overflows)
+	private static final long SENTINEL = Long.MAX_VALUE / 2;
+	
+	// distinct coin values (ascending)
+	private final int[] coins;
+	// true if greedy choice is optimal for every total
+	private final boolean canonical;
+	// current table (replaced as a whole when grown -> lock-free reads)
+	private volatile Table table;
+	
+	/** Creates solver for given coin system. 
+	  * @param coins non-empty array of allowed (positive) coin values.
+	  * @throws IllegalArgumentException if input contains no elements or a coin value is not positive.
+	  */
+	public MinCoins(int[] coins) {
+		this(coins, 0);
+	}
+	
+	/** Creates solver for given coin system with table precomputed up to given total. 
+	  * @param coins non-empty array of allowed (positive) coin values.
+	  * @param maxTotal largest total precomputed up front (table grows lazily beyond it).
+	  * @throws IllegalArgumentException if input contains no elements, a coin value is not positive or total is negative.
+	  */
+	public MinCoins(int[] coins, int maxTotal) {
+		// input validation
+		if (coins == null || coins.length == 0) throw new IllegalArgumentException("Array must contain at least one coin value");
+		if (maxTotal < 0) throw new IllegalArgumentException("Total cannot be negative");
+		for (int coin : coins) {
+			if (coin <= 0) throw new IllegalArgumentException("Coin values must be positive numbers");
+		}
+		
+		this.coins = Arrays.stream(coins).sorted().distinct().toArray();
+		this.table = new Table(new int[] {0}, new int[] {-1});
+		this.canonical = isCanonical();
+		if (!canonical) grow(maxTotal);
+	}
+	
+	/** Returns distinct coin values of the coin system. 
+	  * @return distinct coin values (ascending).
+	  */
+	public int[] coins() {
+		return coins.clone();
+	}
+	
+	/** Returns whether greedy choice (largest coin first) is optimal for every total. 
+	  * @return true if coin system is canonical.
+	  */
+	public boolean isGreedyOptimal() {
+		return canonical;
+	}
+	
+	/** Finds minimum number of coins required to get the desired total. 
+	  * @param total desired value to be reached by adding individual coins. 
+	  * @return minimum number of coins required to get the desired total (returns -1 if solution not found). 
+	  * @throws IllegalArgumentException if total is negative.
+	  */
+	public int minCoins(int total) {
+		// input validation
+		if (total < 0) throw new IllegalArgumentException("Total cannot be negative");
+		
+		if (canonical) {
+			int count = 0;
+			for (int j = coins.length - 1; j >= 0; j--) {
+				count += total / coins[j];
+				total %= coins[j];
+			}
+			return count;
+		}
+		int count = tableFor(total).dp[total];
+		return count == UNREACHABLE ? -1 : count;
+	}
+	
+	/** Finds coins of an optimal solution for the desired total. 
+	  * @param total desired value to be reached by adding individual coins. 
+	  * @return number of coins of each value, aligned with coins() (returns null if solution not found). 
+	  * @throws IllegalArgumentException if total is negative.
+	  */
+	public int[] breakdown(int total) {
+		// input validation
+		if (total < 0) throw new IllegalArgumentException("Total cannot be negative");
+		
+		int[] counts = new int[coins.length];
+		if (canonical) {
+			for (int j = coins.length - 1; j >= 0; j--) {
+				counts[j] = total / coins[j];
+				total %= coins[j];
+			}
+			return counts;
+		}
+		Table current = tableFor(total);
+		if (current.dp[total] == UNREACHABLE) return null;
+		// follow the last coin of each optimal solution back to 0
+		while (total > 0) {
+			int j = current.lastCoin[total];
+			counts[j]++;
+			total -= coins[j];
+		}
+		return counts;
+	}
+	
+	/** Returns table covering given total (grows the table if needed). 
+	  * @param total desired total.
+	  * @return table covering the total.
+	  */
+	private Table tableFor(int total) {
+		Table current = table;
+		if (total < current.dp.length) return current;
+		return grow(total);
+	}
+	
+	/** Grows table to cover given total (at least doubles it -> amortized O(1) growth per total). 
+	  * @param total desired total.
+	  * @return table covering the total.
+	  * @throws IllegalArgumentException if total exceeds maximum table size.
+	  */
+	private synchronized Table grow(int total) {
+		Table current = table;
+		int from = current.dp.length;
+		if (total < from) return current;
+		if (total >= Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Total exceeds maximum table size");
+		
+		int length = (int) Math.min(Math.max(total + 1L, 2L * from), Integer.MAX_VALUE - 8);
+		int[] dp = Arrays.copyOf(current.dp, length);
+		int[] lastCoin = Arrays.copyOf(current.lastCoin, length);
+		fill(dp, lastCoin, from);
+		table = current = new Table(dp, lastCoin);
+		return current;
+	}
+	
+	/** Computes table entries starting at given total (all smaller totals are already computed). 
+	  * @param dp minimum number of coins of each total.
+	  * @param lastCoin index of the last coin of an optimal solution of each total.
+	  * @param from first total to be computed.
+	  */
+	private void fill(int[] dp, int[] lastCoin, int from) {
+		for (int i = from; i < dp.length; i++) {
+			int min = UNREACHABLE;
+			int last = -1;
+			for (int j = 0; j < coins.length && coins[j] <= i; j++) {
+				int prev = dp[i - coins[j]];
+				if (prev != UNREACHABLE && prev + 1 < min) {
+					min = prev + 1;
+					last = j;
+				}
+			}
+			dp[i] = min;
+			lastCoin[i] = last;
+		}
+	}
+	
+	/** Checks whether greedy choice is optimal for every total (Kozen-Zaks: smallest counterexample, if any, 
+	  * is below sum of the two largest coins). Computed table is kept for non-canonical systems. 
+	  * @return true if coin system is canonical.
+	  */
+	private boolean isCanonical() {
+		// without coin 1 greedy may miss reachable totals
+		if (coins[0] != 1) return false;
+		if (coins.length <= 2) return true;
+		
+		long bound = (long) coins[coins.length - 1] + coins[coins.length - 2];
+		if (bound > CANONICAL_CHECK_LIMIT) return false;
+		Table checked = grow((int) bound - 1);
+		for (int i = 1; i < bound; i++) {
+			int greedy = 0;
+			for (int j = coins.length - 1, rest = i; j >= 0; j--) {
+				greedy += rest / coins[j];
+				rest %= coins[j];
+			}
+			if (greedy != checked.dp[i]) return false;
+		}
+		// greedy answers every total -> table is not needed
+		table = new Table(new int[] {0}, new int[] {-1});
+		return true;
+	}
+	
 	/** Finds minimum number of coins required to get the desired total. 
 	  * @param coins non-empty array of allowed coin values.
 	  * @param total desired value to be reached by adding individual coins. 
@@ -51,4 +239,56 @@ public class MinCoins {
 		if (dp[total] == Integer.MAX_VALUE) return -1; // -1 = not found
 		return dp[total];
 	}
+	
+	/** Finds minimum number of coins required to get the desired total keeping only the last max(coin) solutions. 
+	  * @param coins non-empty array of allowed (positive) coin values.
+	  * @param total desired value to be reached by adding individual coins. 
+	  * @return minimum number of coins required to get the desired total (returns -1 if solution not found). 
+	  * @throws IllegalArgumentException if input contains no elements, a coin value is not positive or total is invalid.
+	  */
+	public static int solveBounded(int[] coins, int total) {
+		// input validation
+		if (coins == null || coins.length == 0) throw new IllegalArgumentException("Array must contain at least one coin value");
+		if (total <= 0) throw new IllegalArgumentException("Total must be a positive number");
+		for (int coin : coins) {
+			if (coin <= 0) throw new IllegalArgumentException("Coin values must be positive numbers");
+		}
+		
+		// distinct coins not larger than total (ascending)
+		int[] values = Arrays.stream(coins).filter(coin -> coin <= total).sorted().distinct().toArray();
+		if (values.length == 0) return -1;
+		
+		// ring buffer of power of two size >= max coin -> DP(i - coin) is at (i - coin) & mask
+		int size = Integer.highestOneBit(values[values.length - 1]);
+		if (size < values[values.length - 1]) size <<= 1;
+		int mask = size - 1;
+		long[] ring = new long[size];
+		Arrays.fill(ring, SENTINEL); // totals below 0 (and not yet computed) are unreachable
+		ring[0] = 0; // base case
+		
+		// bottom-up for each total
+		for (int i = 1; i <= total; i++) {
+			long min = SENTINEL;
+			for (int coin : values) {
+				min = Math.min(ring[(i - coin) & mask], min);
+			}
+			ring[i & mask] = min + 1;
+		}
+		// solution found? 
+		long count = ring[total & mask];
+		return count >= SENTINEL ? -1 : (int) count;
+	}
+	
+	// Immutable snapshot of solver table (published as a whole when grown).
+	private static class Table {
+		// minimum number of coins of each total (UNREACHABLE if not reachable)
+		final int[] dp;
+		// index of the last coin of an optimal solution of each total (-1 if none)
+		final int[] lastCoin;
+		
+		Table(int[] dp, int[] lastCoin) {
+			this.dp = dp;
+			this.lastCoin = lastCoin;
+		}
+	}
 }
@@ -0,0 +1,235 @@
+/**
+ * This file contains opt-in operation counters for sorting, selection and searching algorithms.
+ * Counting is switched on for the whole JVM with -Dcom.mgazdovic.algo.stats=true. The switch is a static final
+ * constant, so when it is off every recording hook is removed by the JIT compiler and instrumented code costs nothing.
+ *
+ * Counters are kept per thread (no contention, no atomics) -> current() returns the calling thread's counters.
+ * Algorithms record whole events (a partition, a merge pass, a search) rather than single operations,
+ * and comparator based variants count comparisons through a counting comparator wrapper.
+ * Parallel variants record on fork-join worker threads, so only the calling thread's share is visible to it.
+ *
+ * Partition imbalance of a partition with left and right subarrays is |left - right| / (left + right)
+ * (0 -> perfectly balanced, 1 -> pivot was the minimum or maximum). A partition is unbalanced (bad pivot) if
+ * its smaller side holds less than 1/8 of the range; long streaks of unbalanced partitions reveal adversarial input.
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.stats;
+
+import java.util.Comparator;
+
+public final class OperationStats {
+
+	// true if operation counting is switched on (-Dcom.mgazdovic.algo.stats=true)
+	public static final boolean ENABLED = Boolean.getBoolean("com.mgazdovic.algo.stats");
+
+	// partition is unbalanced if its smaller side holds less than 1/UNBALANCED_RATIO of the range
+	private static final int UNBALANCED_RATIO = 8;
+
+	// counters of each thread
+	private static final ThreadLocal<OperationStats> CURRENT = ThreadLocal.withInitial(OperationStats::new);
+
+	private long comparisons;
+	private long swaps;
+	private long moves;
+	private long partitions;
+	private double imbalance;
+	private long unbalancedPartitions;
+	private long unbalancedStreak;
+	private long longestUnbalancedStreak;
+	private int maxStackDepth;
+	private long mergePasses;
+	private long searches;
+
+	private OperationStats() {
+	}
+
+	/** Returns counters of the calling thread (all zero unless counting is switched on).
+	  * @return counters of the calling thread.
+	  */
+	public static OperationStats current() {
+		return CURRENT.get();
+	}
+
+	/** Resets counters of the calling thread.
+	  * @return counters of the calling thread.
+	  */
+	public static OperationStats reset() {
+		OperationStats stats = CURRENT.get();
+		stats.comparisons = stats.swaps = stats.moves = 0;
+		stats.partitions = stats.unbalancedPartitions = stats.unbalancedStreak = stats.longestUnbalancedStreak = 0;
+		stats.imbalance = 0;
+		stats.maxStackDepth = 0;
+		stats.mergePasses = stats.searches = 0;
+		return stats;
+	}
+
+	/** Returns a copy of counters (not affected by further recording).
+	  * @return copy of counters.
+	  */
+	public OperationStats snapshot() {
+		OperationStats copy = new OperationStats();
+		copy.comparisons = comparisons;
+		copy.swaps = swaps;
+		copy.moves = moves;
+		copy.partitions = partitions;
+		copy.imbalance = imbalance;
+		copy.unbalancedPartitions = unbalancedPartitions;
+		copy.unbalancedStreak = unbalancedStreak;
+		copy.longestUnbalancedStreak = longestUnbalancedStreak;
+		copy.maxStackDepth = maxStackDepth;
+		copy.mergePasses = mergePasses;
+		copy.searches = searches;
+		return copy;
+	}
+
+	/** @return number of element comparisons. */
+	public long comparisons() {
+		return comparisons;
+	}
+
+	/** @return number of element swaps. */
+	public long swaps() {
+		return swaps;
+	}
+
+	/** @return number of element moves (copies between array and auxiliary array). */
+	public long moves() {
+		return moves;
+	}
+
+	/** @return number of partitions. */
+	public long partitions() {
+		return partitions;
+	}
+
+	/** @return average partition imbalance (0 -> perfectly balanced, 1 -> always minimum or maximum pivot). */
+	public double averageImbalance() {
+		return partitions == 0 ? 0 : imbalance / partitions;
+	}
+
+	/** @return number of unbalanced partitions (bad pivots). */
+	public long unbalancedPartitions() {
+		return unbalancedPartitions;
+	}
+
+	/** @return longest run of consecutive unbalanced partitions. */
+	public long longestUnbalancedStreak() {
+		return longestUnbalancedStreak;
+	}
+
+	/** @return maximum depth of "to do" stack (pending ranges). */
+	public int maxStackDepth() {
+		return maxStackDepth;
+	}
+
+	/** @return number of merge passes. */
+	public long mergePasses() {
+		return mergePasses;
+	}
+
+	/** @return number of searches. */
+	public long searches() {
+		return searches;
+	}
+
+	@Override
+	public String toString() {
+		return "OperationStats[comparisons=" + comparisons + ", swaps=" + swaps + ", moves=" + moves
+				+ ", partitions=" + partitions + ", averageImbalance=" + averageImbalance()
+				+ ", unbalancedPartitions=" + unbalancedPartitions + ", longestUnbalancedStreak=" + longestUnbalancedStreak
+				+ ", maxStackDepth=" + maxStackDepth + ", mergePasses=" + mergePasses + ", searches=" + searches + "]";
+	}
+
+	/** Wraps comparator so that it counts comparisons of the calling thread (returns it unchanged if counting is off).
+	  * @param comparator comparator defining element order.
+	  * @return counting comparator.
+	  */
+	public static <T> Comparator<T> counting(Comparator<T> comparator) {
+		if (!ENABLED || comparator instanceof CountingComparator) return comparator;
+		return new CountingComparator<>(comparator, CURRENT.get());
+	}
+
+	/** Records a single partition of a range (hook for algorithm implementations).
+	  * @param comparisons number of element comparisons not counted by a counting comparator.
+	  * @param swaps number of element swaps.
+	  * @param left size of subarray left of pivot(s).
+	  * @param right size of subarray right of pivot(s).
+	  */
+	public static void recordPartition(long comparisons, long swaps, int left, int right) {
+		if (!ENABLED) return;
+		OperationStats stats = CURRENT.get();
+		stats.comparisons += comparisons;
+		stats.swaps += swaps;
+		stats.partitions++;
+		int size = left + right;
+		if (size == 0) return;
+		stats.imbalance += (double) Math.abs(left - right) / size;
+		if ((long) Math.min(left, right) * UNBALANCED_RATIO < size) {
+			stats.unbalancedPartitions++;
+			stats.longestUnbalancedStreak = Math.max(stats.longestUnbalancedStreak, ++stats.unbalancedStreak);
+		}
+		else {
+			stats.unbalancedStreak = 0;
+		}
+	}
+
+	/** Records swaps outside of partitions, e.g. heap sort fallback (hook for algorithm implementations).
+	  * @param swaps number of element swaps.
+	  */
+	public static void recordSwaps(long swaps) {
+		if (!ENABLED) return;
+		CURRENT.get().swaps += swaps;
+	}
+
+	/** Records current depth of "to do" stack (hook for algorithm implementations).
+	  * @param depth number of pending ranges.
+	  */
+	public static void recordStackDepth(int depth) {
+		if (!ENABLED) return;
+		OperationStats stats = CURRENT.get();
+		stats.maxStackDepth = Math.max(stats.maxStackDepth, depth);
+	}
+
+	/** Records a single merge pass (hook for algorithm implementations).
+	  * @param comparisons number of element comparisons not counted by a counting comparator.
+	  * @param moves number of element moves.
+	  */
+	public static void recordMergePass(long comparisons, long moves) {
+		if (!ENABLED) return;
+		OperationStats stats = CURRENT.get();
+		stats.comparisons += comparisons;
+		stats.moves += moves;
+		stats.mergePasses++;
+	}
+
+	/** Records searches (hook for algorithm implementations).
+	  * @param searches number of searches.
+	  * @param comparisons number of element comparisons not counted by a counting comparator.
+	  */
+	public static void recordSearches(long searches, long comparisons) {
+		if (!ENABLED) return;
+		OperationStats stats = CURRENT.get();
+		stats.comparisons += comparisons;
+		stats.searches += searches;
+	}
+
+	// Comparator which counts comparisons into counters of the thread which created it (used on that thread only).
+	private static class CountingComparator<T> implements Comparator<T> {
+		final Comparator<T> comparator;
+		final OperationStats stats;
+
+		CountingComparator(Comparator<T> comparator, OperationStats stats) {
+			this.comparator = comparator;
+			this.stats = stats;
+		}
+
+		@Override
+		public int compare(T a, T b) {
+			stats.comparisons++;
+			return comparator.compare(a, b);
+		}
+	}
+}
@@ -2,7 +2,10 @@
  * This file contains an iterative implementation of quick sort. 
  * Much more fun than simple recursion ;)
  * 
- * Time complexity: 	O(n log n) expected (with high probability -> random pivot)
+ * Intro sort (production mode) adds three-way partitioning, median-of-3 / ninther pivot, insertion sort cutoff and heap sort fallback.
+ * Partitions, stack depth and heap sort fallback are recorded by OperationStats (no-op unless operation counting is switched on).
+ * 
+ * Time complexity: 	O(n log n) expected (with high probability -> random pivot), O(n log n) worst case for intro sort
  * Space complexity: 	O(log n)
  * 		n -> size of array to be sorted
  * 
@@ -12,20 +15,47 @@
 
 package com.mgazdovic.algo.sorting;
 
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import com.mgazdovic.algo.stats.OperationStats;
+import com.mgazdovic.algo.vector.VectorOps;
 
 public class QuickSortIterative {
 	
+	// upper bound on "to do" stack depth for primitive sorts (smaller subarray first -> log2 of max array length)
+	private static final int MAX_STACK_DEPTH = 32;
+	
+	// ranges of this size or smaller are sorted using insertion sort (intro sort)
+	private static final int INSERTION_SORT_THRESHOLD = 24;
+	
+	// ranges of this size or larger use ninther (median of medians of three) pivot (intro sort)
+	private static final int NINTHER_THRESHOLD = 128;
+	
 	/** Performs quick sort algorithm (iterative). 
 	  * @param input non-empty array to be sorted.
 	  * @throws IllegalArgumentException if input is null or contains no elements.
 	  */
 	public static <T extends Comparable<T>> void sort(T[] input) {
+		sort(input, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs quick sort algorithm (iterative) using given comparator. 
+	  * @param input non-empty array to be sorted.
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or comparator is null).
+	  */
+	public static <T> void sort(T[] input, Comparator<? super T> comparator) {
 		// input validation
 		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
 		// single element -> sorted
 		if (input.length == 1) return;
+		comparator = OperationStats.counting(comparator);
 		
 		// create "to do" list of [from, to> pairs
 		Deque<IndexPair> todo = new LinkedList<>();
@@ -39,7 +69,7 @@ public class QuickSortIterative {
 			int from = next.from, to = next.to;
 			
 			// partition puts pivot in correct position and divides array into two (potentially unsorted) subarrays
-			int partitionIndex = partition(input, from, to);
+			int partitionIndex = partition(input, from, to, comparator);
 		
 			// add left subarray if there is still something to do
 			if (partitionIndex > from) {
@@ -49,7 +79,765 @@ public class QuickSortIterative {
 			if (partitionIndex + 1 < to) {
 				todo.push(new IndexPair(partitionIndex + 1, to));
 			}
+			OperationStats.recordStackDepth(todo.size());
+		}
+	}
+	
+	/** Performs introspective quick sort algorithm (iterative, production mode) using natural ordering.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static <T extends Comparable<T>> void introSort(T[] input) {
+		introSort(input, Comparator.<T>naturalOrder());
+	}
+
+	/** Performs introspective quick sort algorithm (iterative, production mode).
+	  * Uses three-way partitioning (equal keys are never partitioned again), median-of-3 / ninther pivot,
+	  * insertion sort for small ranges and heap sort fallback once depth exceeds 2*log n (O(n log n) worst case).
+	  * @param input non-empty array to be sorted.
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or comparator is null).
+	  */
+	public static <T> void introSort(T[] input, Comparator<? super T> comparator) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		introSort(input, 0, input.length, comparator);
+	}
+
+	/** Performs introspective quick sort algorithm (iterative, production mode) on range [from, to> only.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null, range is invalid (or comparator is null).
+	  */
+	public static <T> void introSort(T[] input, int from, int to, Comparator<? super T> comparator) {
+		// input validation
+		if (input == null) throw new IllegalArgumentException("Input cannot be null");
+		if (from < 0 || to > input.length) throw new IllegalArgumentException("Index out of bounds");
+		if (from >= to) throw new IllegalArgumentException("Must satisfy from < to");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		comparator = OperationStats.counting(comparator);
+		
+		final int first = from, last = to;
+		
+		// preallocated "to do" stack of [from, to> pairs with remaining depth (smaller subarray is always processed first)
+		int[] todo = new int[3 * MAX_STACK_DEPTH];
+		int top = 0;
+		int depth = 2 * (31 - Integer.numberOfLeadingZeros(to - from));
+		
+		while (true) {
+			int size = to - from;
+			
+			if (size <= INSERTION_SORT_THRESHOLD) {
+				// small range -> insertion sort
+				insertionSort(input, from, to, comparator);
+			}
+			else if (depth == 0) {
+				// too many bad pivots -> heap sort
+				heapSort(input, from, to, comparator);
+			}
+			else {
+				depth--;
+				
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				T pivot = input[pivotIndex(input, from, to, comparator)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					int cmp = comparator.compare(input[i], pivot);
+					if (cmp < 0) {
+						arraySwap(input, lt++, i++);
+					}
+					else if (cmp > 0) {
+						arraySwap(input, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (comparator counts its own comparisons)
+				OperationStats.recordPartition(0, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					todo[top++] = depth;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					todo[top++] = depth;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 3);
+				continue;
+			}
+			
+			// nothing left to do
+			if (top == 0) break;
+			
+			// fetch next from to do stack
+			depth = todo[--top];
+			to = todo[--top];
+			from = todo[--top];
+		}
+		
+		assert isSorted(input, first, last, comparator);
+	}
+	
+	/** Chooses pivot index for range [from, to> (median-of-3 for smaller ranges, ninther for larger ones). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  * @return index of chosen pivot element.
+	  */
+	private static <T> int pivotIndex(T[] input, int from, int to, Comparator<? super T> comparator) {
+		int last = to - 1;
+		int mid = (from + to)>>>1;
+		if (to - from < NINTHER_THRESHOLD) {
+			return medianOf3(input, from, mid, last, comparator);
+		}
+		int step = (to - from) / 8;
+		return medianOf3(input, 
+				medianOf3(input, from, from + step, from + 2*step, comparator), 
+				medianOf3(input, mid - step, mid, mid + step, comparator), 
+				medianOf3(input, last - 2*step, last - step, last, comparator), comparator);
+	}
+	
+	/** Utility method to find index of median element among three given indexes. 
+	  * @param input array containing the elements.
+	  * @param a index of first element.
+	  * @param b index of second element.
+	  * @param c index of third element.
+	  * @param comparator comparator defining element order.
+	  * @return index of median element.
+	  */
+	private static <T> int medianOf3(T[] input, int a, int b, int c, Comparator<? super T> comparator) {
+		if (comparator.compare(input[a], input[b]) < 0) {
+			if (comparator.compare(input[b], input[c]) < 0) return b;
+			return comparator.compare(input[a], input[c]) < 0 ? c : a;
+		}
+		if (comparator.compare(input[a], input[c]) < 0) return a;
+		return comparator.compare(input[b], input[c]) < 0 ? c : b;
+	}
+	
+	/** Sorts range [from, to> using insertion sort (efficient for small ranges). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void insertionSort(T[] input, int from, int to, Comparator<? super T> comparator) {
+		for (int i = from + 1; i < to; i++) {
+			T item = input[i];
+			int j = i - 1;
+			// shift greater elements one position to the right
+			while (j >= from && comparator.compare(input[j], item) > 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Sorts range [from, to> using heap sort (O(n log n) worst case). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void heapSort(T[] input, int from, int to, Comparator<? super T> comparator) {
+		int n = to - from;
+		// build max heap
+		for (int i = n/2 - 1; i >= 0; i--) {
+			siftDown(input, from, i, n, comparator);
+		}
+		// keep moving max element to the end of the shrinking heap
+		for (int last = n - 1; last > 0; last--) {
+			arraySwap(input, from, from + last);
+			siftDown(input, from, 0, last, comparator);
+		}
+		OperationStats.recordSwaps(n - 1);
+	}
+	
+	/** Restores max heap property (heap stored at offset from) by moving element at index down the heap. 
+	  * @param input array containing the heap.
+	  * @param from offset of heap root within array.
+	  * @param index heap index of element which is moved down.
+	  * @param n heap size.
+	  * @param comparator comparator defining element order.
+	  */
+	private static <T> void siftDown(T[] input, int from, int index, int n, Comparator<? super T> comparator) {
+		T item = input[from + index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick greater child
+			if (child + 1 < n && comparator.compare(input[from + child + 1], input[from + child]) > 0) child++;
+			if (comparator.compare(item, input[from + child]) >= 0) break;
+			input[from + index] = input[from + child];
+			index = child;
+		}
+		input[from + index] = item;
+	}
+	
+	/** Method to check if input array is sorted between [from, to>
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  * @return true if range is sorted; false otherwise.
+	  */
+	private static <T> boolean isSorted(T[] input, int from, int to, Comparator<? super T> comparator) {
+		for (int i = from + 1; i < to; i++) {
+			if (comparator.compare(input[i], input[i-1]) < 0) return false;
+		}
+		return true;
+	}
+
+	/** Performs introspective quick sort algorithm (iterative, production mode).
+	  * Uses three-way partitioning (equal keys are never partitioned again), median-of-3 / ninther pivot,
+	  * insertion sort for small ranges and heap sort fallback once depth exceeds 2*log n (O(n log n) worst case).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void introSort(int[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// preallocated "to do" stack of [from, to> pairs with remaining depth (smaller subarray is always processed first)
+		int[] todo = new int[3 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		int depth = 2 * (31 - Integer.numberOfLeadingZeros(input.length));
+		
+		while (true) {
+			int size = to - from;
+			
+			if (size <= INSERTION_SORT_THRESHOLD) {
+				// small range -> insertion sort
+				insertionSort(input, from, to);
+			}
+			else if (depth == 0) {
+				// too many bad pivots -> heap sort
+				heapSort(input, from, to);
+			}
+			else {
+				depth--;
+				
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				int pivot = input[pivotIndex(input, from, to)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					int cmp = Integer.compare(input[i], pivot);
+					if (cmp < 0) {
+						arraySwap(input, lt++, i++);
+					}
+					else if (cmp > 0) {
+						arraySwap(input, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (one comparison per scanned element)
+				OperationStats.recordPartition(to - from, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					todo[top++] = depth;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					todo[top++] = depth;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 3);
+				continue;
+			}
+			
+			// nothing left to do
+			if (top == 0) break;
+			
+			// fetch next from to do stack
+			depth = todo[--top];
+			to = todo[--top];
+			from = todo[--top];
+		}
+		
+		assert isSorted(input);
+	}
+	
+	/** Chooses pivot index for range [from, to> (median-of-3 for smaller ranges, ninther for larger ones). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int pivotIndex(int[] input, int from, int to) {
+		int last = to - 1;
+		int mid = (from + to)>>>1;
+		if (to - from < NINTHER_THRESHOLD) {
+			return medianOf3(input, from, mid, last);
+		}
+		int step = (to - from) / 8;
+		return medianOf3(input, 
+				medianOf3(input, from, from + step, from + 2*step), 
+				medianOf3(input, mid - step, mid, mid + step), 
+				medianOf3(input, last - 2*step, last - step, last));
+	}
+	
+	/** Utility method to find index of median element among three given indexes. 
+	  * @param input array containing the elements.
+	  * @param a index of first element.
+	  * @param b index of second element.
+	  * @param c index of third element.
+	  * @return index of median element.
+	  */
+	private static int medianOf3(int[] input, int a, int b, int c) {
+		if (input[a] < input[b]) {
+			if (input[b] < input[c]) return b;
+			return input[a] < input[c] ? c : a;
+		}
+		if (input[a] < input[c]) return a;
+		return input[b] < input[c] ? c : b;
+	}
+	
+	/** Sorts range [from, to> using insertion sort (efficient for small ranges). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(int[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			int item = input[i];
+			int j = i - 1;
+			// shift greater elements one position to the right
+			while (j >= from && input[j] > item) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Sorts range [from, to> using heap sort (O(n log n) worst case). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void heapSort(int[] input, int from, int to) {
+		int n = to - from;
+		// build max heap
+		for (int i = n/2 - 1; i >= 0; i--) {
+			siftDown(input, from, i, n);
+		}
+		// keep moving max element to the end of the shrinking heap
+		for (int last = n - 1; last > 0; last--) {
+			arraySwap(input, from, from + last);
+			siftDown(input, from, 0, last);
+		}
+		OperationStats.recordSwaps(n - 1);
+	}
+	
+	/** Restores max heap property (heap stored at offset from) by moving element at index down the heap. 
+	  * @param input array containing the heap.
+	  * @param from offset of heap root within array.
+	  * @param index heap index of element which is moved down.
+	  * @param n heap size.
+	  */
+	private static void siftDown(int[] input, int from, int index, int n) {
+		int item = input[from + index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick greater child
+			if (child + 1 < n && input[from + child + 1] > input[from + child]) child++;
+			if (item >= input[from + child]) break;
+			input[from + index] = input[from + child];
+			index = child;
+		}
+		input[from + index] = item;
+	}
+	
+	/** Method to check if whole input array is sorted. 
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(int[] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs introspective quick sort algorithm (iterative, production mode).
+	  * Uses three-way partitioning (equal keys are never partitioned again), median-of-3 / ninther pivot,
+	  * insertion sort for small ranges and heap sort fallback once depth exceeds 2*log n (O(n log n) worst case).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void introSort(long[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// preallocated "to do" stack of [from, to> pairs with remaining depth (smaller subarray is always processed first)
+		int[] todo = new int[3 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		int depth = 2 * (31 - Integer.numberOfLeadingZeros(input.length));
+		
+		while (true) {
+			int size = to - from;
+			
+			if (size <= INSERTION_SORT_THRESHOLD) {
+				// small range -> insertion sort
+				insertionSort(input, from, to);
+			}
+			else if (depth == 0) {
+				// too many bad pivots -> heap sort
+				heapSort(input, from, to);
+			}
+			else {
+				depth--;
+				
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				long pivot = input[pivotIndex(input, from, to)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					int cmp = Long.compare(input[i], pivot);
+					if (cmp < 0) {
+						arraySwap(input, lt++, i++);
+					}
+					else if (cmp > 0) {
+						arraySwap(input, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (one comparison per scanned element)
+				OperationStats.recordPartition(to - from, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					todo[top++] = depth;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					todo[top++] = depth;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 3);
+				continue;
+			}
+			
+			// nothing left to do
+			if (top == 0) break;
+			
+			// fetch next from to do stack
+			depth = todo[--top];
+			to = todo[--top];
+			from = todo[--top];
+		}
+		
+		assert isSorted(input);
+	}
+	
+	/** Chooses pivot index for range [from, to> (median-of-3 for smaller ranges, ninther for larger ones). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int pivotIndex(long[] input, int from, int to) {
+		int last = to - 1;
+		int mid = (from + to)>>>1;
+		if (to - from < NINTHER_THRESHOLD) {
+			return medianOf3(input, from, mid, last);
+		}
+		int step = (to - from) / 8;
+		return medianOf3(input, 
+				medianOf3(input, from, from + step, from + 2*step), 
+				medianOf3(input, mid - step, mid, mid + step), 
+				medianOf3(input, last - 2*step, last - step, last));
+	}
+	
+	/** Utility method to find index of median element among three given indexes. 
+	  * @param input array containing the elements.
+	  * @param a index of first element.
+	  * @param b index of second element.
+	  * @param c index of third element.
+	  * @return index of median element.
+	  */
+	private static int medianOf3(long[] input, int a, int b, int c) {
+		if (input[a] < input[b]) {
+			if (input[b] < input[c]) return b;
+			return input[a] < input[c] ? c : a;
+		}
+		if (input[a] < input[c]) return a;
+		return input[b] < input[c] ? c : b;
+	}
+	
+	/** Sorts range [from, to> using insertion sort (efficient for small ranges). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(long[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			long item = input[i];
+			int j = i - 1;
+			// shift greater elements one position to the right
+			while (j >= from && input[j] > item) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Sorts range [from, to> using heap sort (O(n log n) worst case). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void heapSort(long[] input, int from, int to) {
+		int n = to - from;
+		// build max heap
+		for (int i = n/2 - 1; i >= 0; i--) {
+			siftDown(input, from, i, n);
+		}
+		// keep moving max element to the end of the shrinking heap
+		for (int last = n - 1; last > 0; last--) {
+			arraySwap(input, from, from + last);
+			siftDown(input, from, 0, last);
+		}
+		OperationStats.recordSwaps(n - 1);
+	}
+	
+	/** Restores max heap property (heap stored at offset from) by moving element at index down the heap. 
+	  * @param input array containing the heap.
+	  * @param from offset of heap root within array.
+	  * @param index heap index of element which is moved down.
+	  * @param n heap size.
+	  */
+	private static void siftDown(long[] input, int from, int index, int n) {
+		long item = input[from + index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick greater child
+			if (child + 1 < n && input[from + child + 1] > input[from + child]) child++;
+			if (item >= input[from + child]) break;
+			input[from + index] = input[from + child];
+			index = child;
+		}
+		input[from + index] = item;
+	}
+	
+	/** Method to check if whole input array is sorted. 
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(long[] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs introspective quick sort algorithm (iterative, production mode).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * Uses three-way partitioning (equal keys are never partitioned again), median-of-3 / ninther pivot,
+	  * insertion sort for small ranges and heap sort fallback once depth exceeds 2*log n (O(n log n) worst case).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void introSort(double[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// preallocated "to do" stack of [from, to> pairs with remaining depth (smaller subarray is always processed first)
+		int[] todo = new int[3 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		int depth = 2 * (31 - Integer.numberOfLeadingZeros(input.length));
+		
+		while (true) {
+			int size = to - from;
+			
+			if (size <= INSERTION_SORT_THRESHOLD) {
+				// small range -> insertion sort
+				insertionSort(input, from, to);
+			}
+			else if (depth == 0) {
+				// too many bad pivots -> heap sort
+				heapSort(input, from, to);
+			}
+			else {
+				depth--;
+				
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				double pivot = input[pivotIndex(input, from, to)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					int cmp = Double.compare(input[i], pivot);
+					if (cmp < 0) {
+						arraySwap(input, lt++, i++);
+					}
+					else if (cmp > 0) {
+						arraySwap(input, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (one comparison per scanned element)
+				OperationStats.recordPartition(to - from, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					todo[top++] = depth;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					todo[top++] = depth;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 3);
+				continue;
+			}
+			
+			// nothing left to do
+			if (top == 0) break;
+			
+			// fetch next from to do stack
+			depth = todo[--top];
+			to = todo[--top];
+			from = todo[--top];
+		}
+		
+		assert isSorted(input);
+	}
+	
+	/** Chooses pivot index for range [from, to> (median-of-3 for smaller ranges, ninther for larger ones). 
+	  * @param input non-empty array.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of chosen pivot element.
+	  */
+	private static int pivotIndex(double[] input, int from, int to) {
+		int last = to - 1;
+		int mid = (from + to)>>>1;
+		if (to - from < NINTHER_THRESHOLD) {
+			return medianOf3(input, from, mid, last);
+		}
+		int step = (to - from) / 8;
+		return medianOf3(input, 
+				medianOf3(input, from, from + step, from + 2*step), 
+				medianOf3(input, mid - step, mid, mid + step), 
+				medianOf3(input, last - 2*step, last - step, last));
+	}
+	
+	/** Utility method to find index of median element among three given indexes. 
+	  * @param input array containing the elements.
+	  * @param a index of first element.
+	  * @param b index of second element.
+	  * @param c index of third element.
+	  * @return index of median element.
+	  */
+	private static int medianOf3(double[] input, int a, int b, int c) {
+		if (Double.compare(input[a], input[b]) < 0) {
+			if (Double.compare(input[b], input[c]) < 0) return b;
+			return Double.compare(input[a], input[c]) < 0 ? c : a;
+		}
+		if (Double.compare(input[a], input[c]) < 0) return a;
+		return Double.compare(input[b], input[c]) < 0 ? c : b;
+	}
+	
+	/** Sorts range [from, to> using insertion sort (efficient for small ranges). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void insertionSort(double[] input, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			double item = input[i];
+			int j = i - 1;
+			// shift greater elements one position to the right
+			while (j >= from && Double.compare(input[j], item) > 0) {
+				input[j + 1] = input[j];
+				j--;
+			}
+			input[j + 1] = item;
+		}
+	}
+	
+	/** Sorts range [from, to> using heap sort (O(n log n) worst case). 
+	  * @param input non-empty array to be sorted.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  */
+	private static void heapSort(double[] input, int from, int to) {
+		int n = to - from;
+		// build max heap
+		for (int i = n/2 - 1; i >= 0; i--) {
+			siftDown(input, from, i, n);
+		}
+		// keep moving max element to the end of the shrinking heap
+		for (int last = n - 1; last > 0; last--) {
+			arraySwap(input, from, from + last);
+			siftDown(input, from, 0, last);
+		}
+		OperationStats.recordSwaps(n - 1);
+	}
+	
+	/** Restores max heap property (heap stored at offset from) by moving element at index down the heap. 
+	  * @param input array containing the heap.
+	  * @param from offset of heap root within array.
+	  * @param index heap index of element which is moved down.
+	  * @param n heap size.
+	  */
+	private static void siftDown(double[] input, int from, int index, int n) {
+		double item = input[from + index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick greater child
+			if (child + 1 < n && Double.compare(input[from + child + 1], input[from + child]) > 0) child++;
+			if (Double.compare(item, input[from + child]) >= 0) break;
+			input[from + index] = input[from + child];
+			index = child;
+		}
+		input[from + index] = item;
+	}
+	
+	/** Method to check if whole input array is sorted. 
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(double[] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (Double.compare(input[i], input[i-1]) < 0) return false;
 		}
+		return true;
 	}
 	
 	/** Partitions array range [from, to> into two subarrays such that pivot element (at returned index) is in correct position. 
@@ -59,9 +847,22 @@ public class QuickSortIterative {
 	  * @return index of pivot element which is now in correct sorted position. 
 	  */
 	public static <T extends Comparable<T>> int partition(T[] input, int from, int to) {
+		return partition(input, from, to, Comparator.<T>naturalOrder());
+	}
+	
+	/** Partitions array range [from, to> (using given comparator) such that pivot element (at returned index) is in correct position. 
+	  * @param input non-empty array to be partitioned.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static <T> int partition(T[] input, int from, int to, Comparator<? super T> comparator) {
+		comparator = OperationStats.counting(comparator);
+		
 		// move random pivot to last position (randomness improves performance)
 		int last = to - 1;
-		int randomIndex = from + (int)(Math.random()*(last - from)); // random index in range [from, to>
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
 		int pivotIndex = last;
 		arraySwap(input, randomIndex, pivotIndex);
 		
@@ -70,15 +871,16 @@ public class QuickSortIterative {
 		
 		// scan through array and move elements less than pivot
 		for(int i = from; i < to; i++) {
-			if (input[i].compareTo(input[pivotIndex]) < 0) {
+			if (comparator.compare(input[i], input[pivotIndex]) < 0) {
 				arraySwap(input, i, partitionIndex++);
 			}
 		}
 		
 		// move pivot to correct position
 		arraySwap(input, pivotIndex, partitionIndex);
+		OperationStats.recordPartition(0, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
 		
-		assert isPartitioned(input, from, to, partitionIndex);
+		assert isPartitioned(input, from, to, partitionIndex, comparator);
 		return partitionIndex;
 	}
 	
@@ -98,10 +900,11 @@ public class QuickSortIterative {
 	  * @param from starting index (inclusive).
 	  * @param to ending index (exclusive).
 	  * @param partitionIndex index of pivot element around which input array partitioning is checked.
+	  * @param comparator comparator defining element order.
 	  * @return true if range is correctly partitioned around element at partition index; false otherwise. 
 	  * @throws IllegalArgumentException if input is not valid (null or invalid indexes). 
 	  */
-	private static <T extends Comparable<T>> boolean isPartitioned(T[] input, int from, int to, int partitionIndex) {
+	private static <T> boolean isPartitioned(T[] input, int from, int to, int partitionIndex, Comparator<? super T> comparator) {
 		// input validation
 		if (input == null) throw new IllegalArgumentException("Input cannot be null");
 		if (from < 0 || to > input.length) throw new IllegalArgumentException("Index out of bounds");
@@ -110,8 +913,8 @@ public class QuickSortIterative {
 		
 		// scan through array and check left (<) and right (>) side by comparing with partition element
 		for (int i = from; i < to; i++) {
-			if (i < partitionIndex && input[i].compareTo(input[partitionIndex]) > 0) return false;
-			if (i > partitionIndex && input[i].compareTo(input[partitionIndex]) < 0) return false;		
+			if (i < partitionIndex && comparator.compare(input[i], input[partitionIndex]) > 0) return false;
+			if (i > partitionIndex && comparator.compare(input[i], input[partitionIndex]) < 0) return false;		
 		}
 		
 		// no violation found
@@ -134,11 +937,21 @@ public class QuickSortIterative {
 	  * @throws IllegalArgumentException if input is null or contains no elements.
 	  */
 	public static <T extends Comparable<T>> void sortR(T[] input) {
+		sortR(input, Comparator.<T>naturalOrder());
+	}
+	
+	/** Performs quick sort algorithm (recursive) using given comparator. 
+	  * @param input non-empty array to be sorted.
+	  * @param comparator comparator defining element order.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or comparator is null).
+	  */
+	public static <T> void sortR(T[] input, Comparator<? super T> comparator) {
 		// input validation
 		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
 			
 		// recursive solution (simple but naughty naughty)
-		sort(input, 0, input.length);
+		sort(input, 0, input.length, comparator);
 		
 	}
 	
@@ -146,16 +959,533 @@ public class QuickSortIterative {
 	  * @param input non-empty array to be sorted.
 	  * @param from starting index (inclusive).
 	  * @param to ending index (exclusive).
+	  * @param comparator comparator defining element order.
 	  */
-	private static <T extends Comparable<T>> void sort(T[] input, int from, int to) {
+	private static <T> void sort(T[] input, int from, int to, Comparator<? super T> comparator) {
 		// base case -> single element
 		if (from >= to - 1) return;
 		
 		// partition puts pivot in correct position and divides array into two (potentially unsorted) subarrays
-		int partitionIndex = partition(input, from, to);
+		int partitionIndex = partition(input, from, to, comparator);
 		
 		// sort both subarrays
-		sort(input, from, partitionIndex);
-		sort(input, partitionIndex + 1, to);
+		sort(input, from, partitionIndex, comparator);
+		sort(input, partitionIndex + 1, to, comparator);
+	}
+
+	/** Performs quick sort algorithm (iterative) on primitive array (no boxing).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(int[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// "to do" stack of [from, to> pairs (smaller subarray is always processed first -> depth <= log n)
+		int[] todo = new int[2 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		
+		while (true) {
+			// range with more than one element -> partition
+			if (to - from > 1) {
+				int partitionIndex = partition(input, from, to);
+				
+				// push larger subarray, continue with smaller one
+				if (partitionIndex - from > to - partitionIndex - 1) {
+					todo[top++] = from;
+					todo[top++] = partitionIndex;
+					from = partitionIndex + 1;
+				}
+				else {
+					todo[top++] = partitionIndex + 1;
+					todo[top++] = to;
+					to = partitionIndex;
+				}
+				OperationStats.recordStackDepth(top / 2);
+				continue;
+			}
+			// nothing left to do
+			if (top == 0) return;
+			
+			// fetch next from to do stack
+			to = todo[--top];
+			from = todo[--top];
+		}
+	}
+	
+	/** Partitions primitive array range [from, to> into two subarrays such that pivot element (at returned index) is in correct position.
+	  * @param input non-empty array to be partitioned.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static int partition(int[] input, int from, int to) {
+		// move random pivot to last position (randomness improves performance)
+		int last = to - 1;
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
+		arraySwap(input, randomIndex, last);
+		int pivot = input[last];
+		
+		// move elements less than pivot to the front (SIMD kernel if available)
+		int partitionIndex = from + VectorOps.partitionLess(input, from, last, pivot);
+		
+		// move pivot to correct position
+		arraySwap(input, last, partitionIndex);
+		OperationStats.recordPartition(last - from, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
+		
+		assert isPartitioned(input, from, to, partitionIndex);
+		return partitionIndex;
+	}
+	
+	/** Utility method to swap two elements in a primitive array. 
+	  * @param input array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(int[] array, int swapIndex1, int swapIndex2) {
+		int temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+	
+	/** Method to check if primitive array is partitioned between [from, to> around element at partitionIndex. 
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param partitionIndex index of pivot element around which input array partitioning is checked.
+	  * @return true if range is correctly partitioned around element at partition index; false otherwise. 
+	  */
+	private static boolean isPartitioned(int[] input, int from, int to, int partitionIndex) {
+		for (int i = from; i < to; i++) {
+			if (i < partitionIndex && input[i] > input[partitionIndex]) return false;
+			if (i > partitionIndex && input[i] < input[partitionIndex]) return false;
+		}
+		return true;
+	}
+
+	/** Performs quick sort algorithm (iterative) on primitive array (no boxing).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(long[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// "to do" stack of [from, to> pairs (smaller subarray is always processed first -> depth <= log n)
+		int[] todo = new int[2 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		
+		while (true) {
+			// range with more than one element -> partition
+			if (to - from > 1) {
+				int partitionIndex = partition(input, from, to);
+				
+				// push larger subarray, continue with smaller one
+				if (partitionIndex - from > to - partitionIndex - 1) {
+					todo[top++] = from;
+					todo[top++] = partitionIndex;
+					from = partitionIndex + 1;
+				}
+				else {
+					todo[top++] = partitionIndex + 1;
+					todo[top++] = to;
+					to = partitionIndex;
+				}
+				OperationStats.recordStackDepth(top / 2);
+				continue;
+			}
+			// nothing left to do
+			if (top == 0) return;
+			
+			// fetch next from to do stack
+			to = todo[--top];
+			from = todo[--top];
+		}
+	}
+	
+	/** Partitions primitive array range [from, to> into two subarrays such that pivot element (at returned index) is in correct position.
+	  * @param input non-empty array to be partitioned.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static int partition(long[] input, int from, int to) {
+		// move random pivot to last position (randomness improves performance)
+		int last = to - 1;
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
+		arraySwap(input, randomIndex, last);
+		long pivot = input[last];
+		
+		// move elements less than pivot to the front (SIMD kernel if available)
+		int partitionIndex = from + VectorOps.partitionLess(input, from, last, pivot);
+		
+		// move pivot to correct position
+		arraySwap(input, last, partitionIndex);
+		OperationStats.recordPartition(last - from, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
+		
+		assert isPartitioned(input, from, to, partitionIndex);
+		return partitionIndex;
+	}
+	
+	/** Utility method to swap two elements in a primitive array. 
+	  * @param input array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(long[] array, int swapIndex1, int swapIndex2) {
+		long temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+	
+	/** Method to check if primitive array is partitioned between [from, to> around element at partitionIndex. 
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param partitionIndex index of pivot element around which input array partitioning is checked.
+	  * @return true if range is correctly partitioned around element at partition index; false otherwise. 
+	  */
+	private static boolean isPartitioned(long[] input, int from, int to, int partitionIndex) {
+		for (int i = from; i < to; i++) {
+			if (i < partitionIndex && input[i] > input[partitionIndex]) return false;
+			if (i > partitionIndex && input[i] < input[partitionIndex]) return false;
+		}
+		return true;
+	}
+
+	/** Performs quick sort algorithm (iterative) on primitive array (no boxing).
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(double[] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		
+		// "to do" stack of [from, to> pairs (smaller subarray is always processed first -> depth <= log n)
+		int[] todo = new int[2 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = input.length;
+		
+		while (true) {
+			// range with more than one element -> partition
+			if (to - from > 1) {
+				int partitionIndex = partition(input, from, to);
+				
+				// push larger subarray, continue with smaller one
+				if (partitionIndex - from > to - partitionIndex - 1) {
+					todo[top++] = from;
+					todo[top++] = partitionIndex;
+					from = partitionIndex + 1;
+				}
+				else {
+					todo[top++] = partitionIndex + 1;
+					todo[top++] = to;
+					to = partitionIndex;
+				}
+				OperationStats.recordStackDepth(top / 2);
+				continue;
+			}
+			// nothing left to do
+			if (top == 0) return;
+			
+			// fetch next from to do stack
+			to = todo[--top];
+			from = todo[--top];
+		}
+	}
+	
+	/** Partitions primitive array range [from, to> into two subarrays such that pivot element (at returned index) is in correct position.
+	  * Elements are ordered as by {@link Double#compare(double, double)} (-0.0 before 0.0, NaN last).
+	  * @param input non-empty array to be partitioned.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static int partition(double[] input, int from, int to) {
+		// move random pivot to last position (randomness improves performance)
+		int last = to - 1;
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
+		arraySwap(input, randomIndex, last);
+		double pivot = input[last];
+		
+		// keep track of partition index
+		int partitionIndex = from;
+		
+		// scan through array and move elements less than pivot
+		for (int i = from; i < last; i++) {
+			if (Double.compare(input[i], pivot) < 0) {
+				arraySwap(input, i, partitionIndex++);
+			}
+		}
+		
+		// move pivot to correct position
+		arraySwap(input, last, partitionIndex);
+		OperationStats.recordPartition(last - from, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
+		
+		assert isPartitioned(input, from, to, partitionIndex);
+		return partitionIndex;
+	}
+	
+	/** Utility method to swap two elements in a primitive array. 
+	  * @param input array in which elements are swapped.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static void arraySwap(double[] array, int swapIndex1, int swapIndex2) {
+		double temp = array[swapIndex1];
+		array[swapIndex1] = array[swapIndex2];
+		array[swapIndex2] = temp;
+	}
+	
+	/** Method to check if primitive array is partitioned between [from, to> around element at partitionIndex. 
+	  * @param input non-empty array to be checked.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param partitionIndex index of pivot element around which input array partitioning is checked.
+	  * @return true if range is correctly partitioned around element at partition index; false otherwise. 
+	  */
+	private static boolean isPartitioned(double[] input, int from, int to, int partitionIndex) {
+		for (int i = from; i < to; i++) {
+			if (i < partitionIndex && Double.compare(input[i], input[partitionIndex]) > 0) return false;
+			if (i > partitionIndex && Double.compare(input[i], input[partitionIndex]) < 0) return false;
+		}
+		return true;
+	}
+
+	/** Performs quick sort algorithm (iterative) ordering elements by int key. 
+	  * Keys are extracted only once per element and moved together with elements (no key recomputation while sorting).
+	  * @param input non-empty array to be sorted.
+	  * @param key function extracting sort key from an element.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or key function is null).
+	  */
+	public static <T> void sortByIntKey(T[] input, ToIntFunction<? super T> key) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		// extract keys once
+		int[] keys = new int[input.length];
+		for (int i = 0; i < input.length; i++) {
+			keys[i] = key.applyAsInt(input[i]);
+		}
+		
+		sort(keys, input);
+	}
+	
+	/** Sorts keys array and reorders items array in lockstep (three-way partitioning, iterative). 
+	  * @param keys non-empty array of keys to be sorted.
+	  * @param items array of elements (same length as keys) which is reordered together with keys.
+	  */
+	private static <T> void sort(int[] keys, T[] items) {
+		// "to do" stack of [from, to> pairs (smaller subarray is always processed first -> depth <= log n)
+		int[] todo = new int[2 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = keys.length;
+		
+		while (true) {
+			// range with more than one element -> partition
+			if (to - from > 1) {
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				int pivot = keys[medianOf3(keys, from, (from + to)>>>1, to - 1)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					if (keys[i] < pivot) {
+						arraySwap(keys, items, lt++, i++);
+					}
+					else if (keys[i] > pivot) {
+						arraySwap(keys, items, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (one comparison per scanned element)
+				OperationStats.recordPartition(to - from, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 2);
+				continue;
+			}
+			// nothing left to do
+			if (top == 0) return;
+			
+			// fetch next from to do stack
+			to = todo[--top];
+			from = todo[--top];
+		}
+	}
+	
+	/** Partitions range [from, to> of keys (and items in lockstep) such that pivot key (at returned index) is in correct position. 
+	  * @param keys non-empty array of keys to be partitioned.
+	  * @param items array of elements (same length as keys) which is reordered together with keys.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static <T> int partition(int[] keys, T[] items, int from, int to) {
+		// move random pivot to last position (randomness improves performance)
+		int last = to - 1;
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
+		arraySwap(keys, items, randomIndex, last);
+		int pivot = keys[last];
+		
+		// keep track of partition index
+		int partitionIndex = from;
+		
+		// scan through array and move elements less than pivot
+		for (int i = from; i < last; i++) {
+			if (keys[i] < pivot) {
+				arraySwap(keys, items, i, partitionIndex++);
+			}
+		}
+		
+		// move pivot to correct position
+		arraySwap(keys, items, last, partitionIndex);
+		OperationStats.recordPartition(last - from, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
+		
+		assert isPartitioned(keys, from, to, partitionIndex);
+		return partitionIndex;
+	}
+	
+	/** Utility method to swap two elements in keys array and items array (lockstep). 
+	  * @param keys array of keys.
+	  * @param items array of elements.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static <T> void arraySwap(int[] keys, T[] items, int swapIndex1, int swapIndex2) {
+		arraySwap(keys, swapIndex1, swapIndex2);
+		arraySwap(items, swapIndex1, swapIndex2);
+	}
+
+	/** Performs quick sort algorithm (iterative) ordering elements by long key. 
+	  * Keys are extracted only once per element and moved together with elements (no key recomputation while sorting).
+	  * @param input non-empty array to be sorted.
+	  * @param key function extracting sort key from an element.
+	  * @throws IllegalArgumentException if input is null or contains no elements (or key function is null).
+	  */
+	public static <T> void sortByLongKey(T[] input, ToLongFunction<? super T> key) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		if (key == null) throw new IllegalArgumentException("Key function cannot be null");
+		
+		// extract keys once
+		long[] keys = new long[input.length];
+		for (int i = 0; i < input.length; i++) {
+			keys[i] = key.applyAsLong(input[i]);
+		}
+		
+		sort(keys, input);
+	}
+	
+	/** Sorts keys array and reorders items array in lockstep (three-way partitioning, iterative). 
+	  * @param keys non-empty array of keys to be sorted.
+	  * @param items array of elements (same length as keys) which is reordered together with keys.
+	  */
+	private static <T> void sort(long[] keys, T[] items) {
+		// "to do" stack of [from, to> pairs (smaller subarray is always processed first -> depth <= log n)
+		int[] todo = new int[2 * MAX_STACK_DEPTH];
+		int top = 0;
+		int from = 0, to = keys.length;
+		
+		while (true) {
+			// range with more than one element -> partition
+			if (to - from > 1) {
+				// three-way partition (Dutch flag): [from, lt> < pivot, [lt, gt] == pivot, <gt, to> > pivot
+				long pivot = keys[medianOf3(keys, from, (from + to)>>>1, to - 1)];
+				int lt = from, gt = to - 1, i = from;
+				while (i <= gt) {
+					if (keys[i] < pivot) {
+						arraySwap(keys, items, lt++, i++);
+					}
+					else if (keys[i] > pivot) {
+						arraySwap(keys, items, i, gt--);
+					}
+					else {
+						i++;
+					}
+				}
+				
+				// count partition (one comparison per scanned element)
+				OperationStats.recordPartition(to - from, (lt - from) + (to - gt - 1), lt - from, to - gt - 1);
+				
+				// push larger subarray, continue with smaller one
+				if (lt - from > to - gt - 1) {
+					todo[top++] = from;
+					todo[top++] = lt;
+					from = gt + 1;
+				}
+				else {
+					todo[top++] = gt + 1;
+					todo[top++] = to;
+					to = lt;
+				}
+				OperationStats.recordStackDepth(top / 2);
+				continue;
+			}
+			// nothing left to do
+			if (top == 0) return;
+			
+			// fetch next from to do stack
+			to = todo[--top];
+			from = todo[--top];
+		}
+	}
+	
+	/** Partitions range [from, to> of keys (and items in lockstep) such that pivot key (at returned index) is in correct position. 
+	  * @param keys non-empty array of keys to be partitioned.
+	  * @param items array of elements (same length as keys) which is reordered together with keys.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return index of pivot element which is now in correct sorted position. 
+	  */
+	public static <T> int partition(long[] keys, T[] items, int from, int to) {
+		// move random pivot to last position (randomness improves performance)
+		int last = to - 1;
+		int randomIndex = ThreadLocalRandom.current().nextInt(from, to); // random index in range [from, to> (per-thread generator)
+		arraySwap(keys, items, randomIndex, last);
+		long pivot = keys[last];
+		
+		// keep track of partition index
+		int partitionIndex = from;
+		
+		// scan through array and move elements less than pivot
+		for (int i = from; i < last; i++) {
+			if (keys[i] < pivot) {
+				arraySwap(keys, items, i, partitionIndex++);
+			}
+		}
+		
+		// move pivot to correct position
+		arraySwap(keys, items, last, partitionIndex);
+		OperationStats.recordPartition(last - from, partitionIndex - from + 2, partitionIndex - from, last - partitionIndex);
+		
+		assert isPartitioned(keys, from, to, partitionIndex);
+		return partitionIndex;
+	}
+	
+	/** Utility method to swap two elements in keys array and items array (lockstep). 
+	  * @param keys array of keys.
+	  * @param items array of elements.
+	  * @param swapIndex1 index of first element.
+	  * @param swapIndex2 index of second element.
+	  */
+	private static <T> void arraySwap(long[] keys, T[] items, int swapIndex1, int swapIndex2) {
+		arraySwap(keys, swapIndex1, swapIndex2);
+		arraySwap(items, swapIndex1, swapIndex2);
 	}
 }
@@ -0,0 +1,510 @@
+/**
+ * This file contains implementations of radix sort (non-comparison sorting).
+ * LSD (least significant digit first) mode sorts primitive int / long keys by stable counting sort passes over digits
+ * of 8, 11 or 16 bits. Sign bit of each key is flipped before extracting digits, so negative numbers come first.
+ * Histograms of all digits are collected by a single scan and passes in which all elements share the same digit are skipped
+ * (e.g. only one pass is performed for small non-negative numbers).
+ * Parallel mode splits the array into chunks -> histograms of chunks and scatters of chunks are computed in parallel (fork-join).
+ *
+ * MSD (most significant digit first) mode sorts byte string keys in unsigned lexicographic order (as by Arrays.compareUnsigned).
+ * Each range is distributed into 257 buckets (end of string + 256 byte values) by the byte at current depth,
+ * common prefixes are skipped without moving elements and small buckets fall back to QuickSortIterative (intro sort).
+ *
+ * Time complexity: 	O(w/b * (n + 2^b)) LSD mode, O(n + total length of distinguishing prefixes) MSD mode
+ * Space complexity: 	O(n + 2^b)
+ * 		n -> size of array to be sorted
+ * 		w -> key size in bits (32 or 64)
+ * 		b -> digit size in bits (8, 11 or 16)
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.sorting;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public class RadixSort {
+
+	// default digit size in bits (LSD mode)
+	public static final int DEFAULT_DIGIT_BITS = 8;
+
+	// default minimum number of elements per chunk in parallel mode (smaller arrays are sorted sequentially)
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+	// buckets of this size or smaller are sorted using intro sort (MSD mode)
+	private static final int MSD_CUTOFF = 32;
+
+	// number of distinct byte values (MSD mode)
+	private static final int BYTE_RADIX = 256;
+
+	/** Performs LSD radix sort on primitive array using default digit size.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(int[] input) {
+		sort(input, DEFAULT_DIGIT_BITS);
+	}
+
+	/** Performs LSD radix sort on primitive array (stable counting sort per digit).
+	  * @param input non-empty array to be sorted.
+	  * @param digitBits digit size in bits (8, 11 or 16).
+	  * @throws IllegalArgumentException if input is null or contains no elements (or digit size is invalid).
+	  */
+	public static void sort(int[] input, int digitBits) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		digitBitsValidOrThrow(digitBits);
+
+		final int N = input.length;
+		final int passes = (Integer.SIZE + digitBits - 1) / digitBits;
+		final int mask = (1 << digitBits) - 1;
+
+		// histograms of all digits by a single scan (digit counts do not depend on element order)
+		int[][] counts = new int[passes][mask + 1];
+		for (int item : input) {
+			int key = item ^ Integer.MIN_VALUE;
+			for (int pass = 0; pass < passes; pass++) {
+				counts[pass][(key >>> (pass * digitBits)) & mask]++;
+			}
+		}
+
+		int[] src = input, dst = null;
+		for (int pass = 0; pass < passes; pass++) {
+			int shift = pass * digitBits;
+			int[] count = counts[pass];
+
+			// all elements share this digit -> pass would not move anything
+			if (count[((src[0] ^ Integer.MIN_VALUE) >>> shift) & mask] == N) continue;
+			if (dst == null) dst = new int[N];
+
+			// bucket counts -> bucket starting indexes
+			toOffsets(count);
+
+			// scatter elements into buckets (stable)
+			for (int item : src) {
+				dst[count[((item ^ Integer.MIN_VALUE) >>> shift) & mask]++] = item;
+			}
+
+			int[] temp = src;
+			src = dst;
+			dst = temp;
+		}
+
+		// sorted result ended up in auxiliary array -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+
+		assert isSorted(input);
+	}
+
+	/** Performs parallel LSD radix sort on primitive array (fork-join) using default digit size and threshold.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void parallelSort(int[] input) {
+		parallelSort(input, DEFAULT_DIGIT_BITS, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/** Performs parallel LSD radix sort on primitive array (fork-join).
+	  * Each pass computes histograms of chunks in parallel, turns them into starting indexes of every (digit, chunk) pair
+	  * and scatters chunks in parallel (chunks write to disjoint ranges -> no synchronization, stable).
+	  * @param input non-empty array to be sorted.
+	  * @param digitBits digit size in bits (8, 11 or 16).
+	  * @param threshold minimum number of elements per chunk (must be positive).
+	  * @throws IllegalArgumentException if input is null or contains no elements, digit size or threshold is invalid.
+	  */
+	public static void parallelSort(int[] input, int digitBits, int threshold) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		digitBitsValidOrThrow(digitBits);
+		if (threshold < 1) throw new IllegalArgumentException("Threshold must be a positive number");
+
+		final int N = input.length;
+
+		// small input -> no point in forking
+		if (N <= threshold) {
+			sort(input, digitBits);
+			return;
+		}
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		final int passes = (Integer.SIZE + digitBits - 1) / digitBits;
+		final int mask = (1 << digitBits) - 1;
+		final int chunkSize = chunkSize(N, threshold, pool);
+		final int chunks = (N + chunkSize - 1) / chunkSize;
+		final int[][] counts = new int[chunks][mask + 1];
+
+		int[] src = input, dst = new int[N];
+		for (int pass = 0; pass < passes; pass++) {
+			final int shift = pass * digitBits;
+			final int[] from = src, to = dst;
+
+			// histogram of each chunk
+			pool.invoke(new ChunkTask(0, chunks, chunk -> {
+				int[] count = counts[chunk];
+				Arrays.fill(count, 0);
+				for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, N); i < end; i++) {
+					count[((from[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++;
+				}
+			}));
+
+			// all elements share this digit -> pass would not move anything
+			if (!toOffsets(counts, ((src[0] ^ Integer.MIN_VALUE) >>> shift) & mask, N)) continue;
+
+			// scatter each chunk into its part of every bucket
+			pool.invoke(new ChunkTask(0, chunks, chunk -> {
+				int[] offset = counts[chunk];
+				for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, N); i < end; i++) {
+					to[offset[((from[i] ^ Integer.MIN_VALUE) >>> shift) & mask]++] = from[i];
+				}
+			}));
+
+			src = to;
+			dst = from;
+		}
+
+		// sorted result ended up in auxiliary array -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+
+		assert isSorted(input);
+	}
+
+	/** Method to check if primitive array is sorted.
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(int[] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs LSD radix sort on primitive array using default digit size.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void sort(long[] input) {
+		sort(input, DEFAULT_DIGIT_BITS);
+	}
+
+	/** Performs LSD radix sort on primitive array (stable counting sort per digit).
+	  * @param input non-empty array to be sorted.
+	  * @param digitBits digit size in bits (8, 11 or 16).
+	  * @throws IllegalArgumentException if input is null or contains no elements (or digit size is invalid).
+	  */
+	public static void sort(long[] input, int digitBits) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		digitBitsValidOrThrow(digitBits);
+
+		final int N = input.length;
+		final int passes = (Long.SIZE + digitBits - 1) / digitBits;
+		final int mask = (1 << digitBits) - 1;
+
+		// histograms of all digits by a single scan (digit counts do not depend on element order)
+		int[][] counts = new int[passes][mask + 1];
+		for (long item : input) {
+			long key = item ^ Long.MIN_VALUE;
+			for (int pass = 0; pass < passes; pass++) {
+				counts[pass][(int) (key >>> (pass * digitBits)) & mask]++;
+			}
+		}
+
+		long[] src = input, dst = null;
+		for (int pass = 0; pass < passes; pass++) {
+			int shift = pass * digitBits;
+			int[] count = counts[pass];
+
+			// all elements share this digit -> pass would not move anything
+			if (count[(int) ((src[0] ^ Long.MIN_VALUE) >>> shift) & mask] == N) continue;
+			if (dst == null) dst = new long[N];
+
+			// bucket counts -> bucket starting indexes
+			toOffsets(count);
+
+			// scatter elements into buckets (stable)
+			for (long item : src) {
+				dst[count[(int) ((item ^ Long.MIN_VALUE) >>> shift) & mask]++] = item;
+			}
+
+			long[] temp = src;
+			src = dst;
+			dst = temp;
+		}
+
+		// sorted result ended up in auxiliary array -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+
+		assert isSorted(input);
+	}
+
+	/** Performs parallel LSD radix sort on primitive array (fork-join) using default digit size and threshold.
+	  * @param input non-empty array to be sorted.
+	  * @throws IllegalArgumentException if input is null or contains no elements.
+	  */
+	public static void parallelSort(long[] input) {
+		parallelSort(input, DEFAULT_DIGIT_BITS, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/** Performs parallel LSD radix sort on primitive array (fork-join).
+	  * Each pass computes histograms of chunks in parallel, turns them into starting indexes of every (digit, chunk) pair
+	  * and scatters chunks in parallel (chunks write to disjoint ranges -> no synchronization, stable).
+	  * @param input non-empty array to be sorted.
+	  * @param digitBits digit size in bits (8, 11 or 16).
+	  * @param threshold minimum number of elements per chunk (must be positive).
+	  * @throws IllegalArgumentException if input is null or contains no elements, digit size or threshold is invalid.
+	  */
+	public static void parallelSort(long[] input, int digitBits, int threshold) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		digitBitsValidOrThrow(digitBits);
+		if (threshold < 1) throw new IllegalArgumentException("Threshold must be a positive number");
+
+		final int N = input.length;
+
+		// small input -> no point in forking
+		if (N <= threshold) {
+			sort(input, digitBits);
+			return;
+		}
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		final int passes = (Long.SIZE + digitBits - 1) / digitBits;
+		final int mask = (1 << digitBits) - 1;
+		final int chunkSize = chunkSize(N, threshold, pool);
+		final int chunks = (N + chunkSize - 1) / chunkSize;
+		final int[][] counts = new int[chunks][mask + 1];
+
+		long[] src = input, dst = new long[N];
+		for (int pass = 0; pass < passes; pass++) {
+			final int shift = pass * digitBits;
+			final long[] from = src, to = dst;
+
+			// histogram of each chunk
+			pool.invoke(new ChunkTask(0, chunks, chunk -> {
+				int[] count = counts[chunk];
+				Arrays.fill(count, 0);
+				for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, N); i < end; i++) {
+					count[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift) & mask]++;
+				}
+			}));
+
+			// all elements share this digit -> pass would not move anything
+			if (!toOffsets(counts, (int) ((src[0] ^ Long.MIN_VALUE) >>> shift) & mask, N)) continue;
+
+			// scatter each chunk into its part of every bucket
+			pool.invoke(new ChunkTask(0, chunks, chunk -> {
+				int[] offset = counts[chunk];
+				for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, N); i < end; i++) {
+					to[offset[(int) ((from[i] ^ Long.MIN_VALUE) >>> shift) & mask]++] = from[i];
+				}
+			}));
+
+			src = to;
+			dst = from;
+		}
+
+		// sorted result ended up in auxiliary array -> copy back
+		if (src != input) {
+			System.arraycopy(src, 0, input, 0, N);
+		}
+
+		assert isSorted(input);
+	}
+
+	/** Method to check if primitive array is sorted.
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(long[] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (input[i] < input[i-1]) return false;
+		}
+		return true;
+	}
+
+	/** Performs MSD radix sort on byte strings (unsigned lexicographic order, shorter string first if it is a prefix of the other).
+	  * Equal byte strings may end up in any relative order (not stable).
+	  * @param input non-empty array of byte strings to be sorted.
+	  * @throws IllegalArgumentException if input is null, contains no elements or contains null elements.
+	  */
+	public static void sort(byte[][] input) {
+		// input validation
+		if (input == null || input.length == 0) throw new IllegalArgumentException("Array must contain at least one element");
+		for (byte[] item : input) {
+			if (item == null) throw new IllegalArgumentException("Elements cannot be null");
+		}
+
+		byte[][] aux = new byte[input.length][];
+		// count[r + 1] -> size of bucket r, bucket 0 holds strings which end at current depth
+		int[] count = new int[BYTE_RADIX + 2];
+
+		// "to do" stack of [from, to> pairs with depth (grows on demand)
+		int[] todo = new int[3 * BYTE_RADIX];
+		int top = 0;
+		todo[top++] = 0;
+		todo[top++] = input.length;
+		todo[top++] = 0;
+
+		while (top > 0) {
+			final int depth = todo[--top];
+			int to = todo[--top];
+			int from = todo[--top];
+
+			// small range -> intro sort comparing from current depth on (prefixes are equal)
+			if (to - from <= MSD_CUTOFF) {
+				QuickSortIterative.introSort(input, from, to, (a, b) -> Arrays.compareUnsigned(a, depth, a.length, b, depth, b.length));
+				continue;
+			}
+
+			// bucket sizes
+			Arrays.fill(count, 0);
+			for (int i = from; i < to; i++) {
+				count[byteAt(input[i], depth) + 1]++;
+			}
+
+			// all strings share the byte at this depth -> skip it without moving anything (or all strings ended -> done)
+			int first = byteAt(input[from], depth);
+			if (count[first + 1] == to - from) {
+				if (first > 0) {
+					todo[top++] = from;
+					todo[top++] = to;
+					todo[top++] = depth + 1;
+				}
+				continue;
+			}
+
+			// bucket sizes -> bucket starting indexes, then distribute (count[r] becomes end of bucket r)
+			for (int r = 0; r <= BYTE_RADIX; r++) {
+				count[r + 1] += count[r];
+			}
+			for (int i = from; i < to; i++) {
+				aux[count[byteAt(input[i], depth)]++] = input[i];
+			}
+			System.arraycopy(aux, 0, input, from, to - from);
+
+			// sort every bucket (except strings which ended) by next byte
+			for (int r = 1; r <= BYTE_RADIX; r++) {
+				if (count[r] - count[r - 1] < 2) continue;
+				if (top == todo.length) todo = Arrays.copyOf(todo, 2 * todo.length);
+				todo[top++] = from + count[r - 1];
+				todo[top++] = from + count[r];
+				todo[top++] = depth + 1;
+			}
+		}
+
+		assert isSorted(input);
+	}
+
+	/** Utility method to get byte at given depth of byte string (0 if string ended, unsigned byte value + 1 otherwise).
+	  * @param item byte string.
+	  * @param depth index of byte.
+	  * @return bucket index in range [0, 256].
+	  */
+	private static int byteAt(byte[] item, int depth) {
+		return depth < item.length ? (item[depth] & 0xFF) + 1 : 0;
+	}
+
+	/** Method to check if byte strings are sorted (unsigned lexicographic order).
+	  * @param input non-empty array to be checked.
+	  * @return true if array is sorted; false otherwise.
+	  */
+	private static boolean isSorted(byte[][] input) {
+		for (int i = 1; i < input.length; i++) {
+			if (Arrays.compareUnsigned(input[i], input[i-1]) < 0) return false;
+		}
+		return true;
+	}
+
+	/** Utility method to validate digit size.
+	  * @param digitBits digit size in bits.
+	  * @throws IllegalArgumentException if digit size is not 8, 11 or 16 bits.
+	  */
+	private static void digitBitsValidOrThrow(int digitBits) {
+		if (digitBits != 8 && digitBits != 11 && digitBits != 16) throw new IllegalArgumentException("Digit size must be 8, 11 or 16 bits");
+	}
+
+	/** Utility method to turn bucket counts into bucket starting indexes (in place).
+	  * @param count bucket counts.
+	  */
+	private static void toOffsets(int[] count) {
+		int offset = 0;
+		for (int digit = 0; digit < count.length; digit++) {
+			int size = count[digit];
+			count[digit] = offset;
+			offset += size;
+		}
+	}
+
+	/** Utility method to turn bucket counts of chunks into starting indexes of every (digit, chunk) pair (in place).
+	  * Within a bucket, elements of earlier chunks come first (-> stable).
+	  * @param counts bucket counts of each chunk.
+	  * @param digit digit of any element.
+	  * @param N number of elements.
+	  * @return false if all elements share given digit (pass is trivial, counts are left unchanged); true otherwise.
+	  */
+	private static boolean toOffsets(int[][] counts, int digit, int N) {
+		int total = 0;
+		for (int[] count : counts) {
+			total += count[digit];
+		}
+		if (total == N) return false;
+
+		int offset = 0;
+		for (int d = 0; d < counts[0].length; d++) {
+			for (int[] count : counts) {
+				int size = count[d];
+				count[d] = offset;
+				offset += size;
+			}
+		}
+		return true;
+	}
+
+	/** Utility method to choose chunk size for parallel mode (a few chunks per worker, at least threshold elements each).
+	  * @param N number of elements.
+	  * @param threshold minimum number of elements per chunk.
+	  * @param pool pool which runs the chunks.
+	  * @return number of elements per chunk.
+	  */
+	private static int chunkSize(int N, int threshold, ForkJoinPool pool) {
+		long chunks = Math.min((N + (long) threshold - 1) / threshold, 4L * pool.getParallelism());
+		return (int) ((N + chunks - 1) / chunks);
+	}
+
+	// Fork-join task which runs given action for chunks [firstChunk, lastChunk>.
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final int firstChunk, lastChunk;
+		final IntConsumer action;
+
+		ChunkTask(int firstChunk, int lastChunk, IntConsumer action) {
+			this.firstChunk = firstChunk;
+			this.lastChunk = lastChunk;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			// single chunk -> run action
+			if (lastChunk - firstChunk == 1) {
+				action.accept(firstChunk);
+				return;
+			}
+			// split chunks in half
+			int mid = (firstChunk + lastChunk)>>>1;
+			invokeAll(new ChunkTask(firstChunk, mid, action), new ChunkTask(mid, lastChunk, action));
+		}
+	}
+}
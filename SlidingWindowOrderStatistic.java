@@ -0,0 +1,803 @@
+/**
+ * This file contains a sliding window order statistic structure (k-th largest / smallest item, quantiles and ranks)
+ * over the most recent items of a stream, e.g. rolling p99 latency of the last N events.
+ * Items are kept in a fixed-capacity ring buffer in arrival order -> adding to a full window evicts the oldest item.
+ * Slot of each item in the ring buffer is also its node in a treap (randomized balanced binary search tree) ordered by
+ * (item, arrival) and augmented with subtree sizes, so every query descends a single path of expected O(log N) length.
+ * All nodes live in preallocated arrays -> no allocation per event. Windows are not thread-safe.
+ * 
+ * Time complexity: 	O(log N) expected add, evict, k-th largest / smallest, quantile and rank
+ * Space complexity: 	O(N)
+ * 		N -> window capacity
+ * 
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.searching;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+public class SlidingWindowOrderStatistic<T> {
+
+	// missing node (empty subtree)
+	private static final int NIL = -1;
+
+	// comparator defining item order
+	private final Comparator<? super T> comparator;
+	// ring buffer of items in arrival order (slot of an item is also its tree node)
+	private final Object[] items;
+	// arrival number of item in each slot (breaks ties between equal items -> every node has a unique key)
+	private final long[] arrivals;
+	// treap over slots ordered by (item, arrival) -> children, subtree sizes and heap priorities of nodes
+	private final int[] left, right, count, priority;
+	// root node of treap
+	private int root = NIL;
+	// slot of oldest item
+	private int oldest;
+	// number of items in window
+	private int size;
+	// arrival number of next added item
+	private long arrival;
+	// state of xorshift generator of node priorities
+	private int seed = 0x9E3779B9;
+
+	/** Creates sliding window ordered by given comparator. 
+	  * @param capacity maximum number of items in window.
+	  * @param comparator comparator defining item order.
+	  * @throws IllegalArgumentException if capacity is not positive or comparator is null.
+	  */
+	public SlidingWindowOrderStatistic(int capacity, Comparator<? super T> comparator) {
+		// input validation
+		if (capacity < 1) throw new IllegalArgumentException("Capacity must be a positive number");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		this.comparator = comparator;
+		items = new Object[capacity];
+		arrivals = new long[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		count = new int[capacity];
+		priority = new int[capacity];
+	}
+
+	/** Creates sliding window using natural ordering. 
+	  * @param capacity maximum number of items in window.
+	  * @return empty window.
+	  * @throws IllegalArgumentException if capacity is not positive.
+	  */
+	public static <T extends Comparable<T>> SlidingWindowOrderStatistic<T> naturalOrder(int capacity) {
+		return new SlidingWindowOrderStatistic<>(capacity, Comparator.<T>naturalOrder());
+	}
+
+	/** Creates sliding window for long items. 
+	  * @param capacity maximum number of items in window.
+	  * @return empty window.
+	  * @throws IllegalArgumentException if capacity is not positive.
+	  */
+	public static OfLong ofLong(int capacity) {
+		return new OfLong(capacity);
+	}
+
+	/** Creates sliding window for double items (ordered as by {@link Double#compare(double, double)}, NaN largest). 
+	  * @param capacity maximum number of items in window.
+	  * @return empty window.
+	  * @throws IllegalArgumentException if capacity is not positive.
+	  */
+	public static OfDouble ofDouble(int capacity) {
+		return new OfDouble(capacity);
+	}
+
+	/** Adds newest item to window (oldest item is evicted first if window is full).
+	  * @param item added item.
+	  */
+	public void add(T item) {
+		if (size == items.length) evict();
+		
+		int slot = oldest + size;
+		if (slot >= items.length) slot -= items.length;
+		items[slot] = item;
+		arrivals[slot] = arrival++;
+		left[slot] = right[slot] = NIL;
+		count[slot] = 1;
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		priority[slot] = seed;
+		
+		root = insert(root, slot);
+		size++;
+	}
+
+	/** Removes oldest item from window.
+	  * @return evicted item.
+	  * @throws NoSuchElementException if window is empty.
+	  */
+	public T evict() {
+		if (size == 0) throw new NoSuchElementException("Window is empty");
+		
+		int slot = oldest;
+		T item = item(slot);
+		root = delete(root, slot);
+		items[slot] = null;
+		oldest = slot + 1 == items.length ? 0 : slot + 1;
+		size--;
+		return item;
+	}
+
+	/** Returns k-th largest item in window.
+	  * @param k rank of item (1 -> largest).
+	  * @return k-th largest item.
+	  * @throws IllegalArgumentException if k is not between 1 and window size.
+	  */
+	public T kthLargest(int k) {
+		if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+		return item(select(size - k));
+	}
+
+	/** Returns k-th smallest item in window.
+	  * @param k rank of item (1 -> smallest).
+	  * @return k-th smallest item.
+	  * @throws IllegalArgumentException if k is not between 1 and window size.
+	  */
+	public T kthSmallest(int k) {
+		if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+		return item(select(k - 1));
+	}
+
+	/** Returns quantile of items in window using nearest rank method (e.g. 0.99 -> p99).
+	  * @param q quantile in range [0, 1].
+	  * @return smallest item such that at least q of items in window are not greater than it.
+	  * @throws IllegalArgumentException if q is not in range [0, 1].
+	  * @throws NoSuchElementException if window is empty.
+	  */
+	public T quantile(double q) {
+		if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("Quantile must be in range [0, 1]");
+		if (size == 0) throw new NoSuchElementException("Window is empty");
+		return item(select(Math.max(1, (int) Math.ceil(q * size)) - 1));
+	}
+
+	/** Returns rank of given value in window. 
+	  * @param value compared value (does not need to be in window).
+	  * @return number of items in window smaller than value.
+	  */
+	public int rank(T value) {
+		int rank = 0;
+		for (int node = root; node != NIL; ) {
+			if (comparator.compare(item(node), value) < 0) {
+				rank += count(left[node]) + 1;
+				node = right[node];
+			}
+			else {
+				node = left[node];
+			}
+		}
+		return rank;
+	}
+
+	/** @return number of items in window. */
+	public int size() {
+		return size;
+	}
+
+	/** @return maximum number of items in window. */
+	public int capacity() {
+		return items.length;
+	}
+
+	/** Removes all items from window. */
+	public void clear() {
+		Arrays.fill(items, null);
+		root = NIL;
+		oldest = size = 0;
+	}
+
+	/** @return item in given slot. */
+	@SuppressWarnings("unchecked")
+	private T item(int slot) {
+		return (T) items[slot];
+	}
+
+	/** Finds node of item with given index in ascending order. 
+	  * @param index index of item (0 -> smallest).
+	  * @return node (slot) of item.
+	  */
+	private int select(int index) {
+		int node = root;
+		while (true) {
+			int smaller = count(left[node]);
+			if (index < smaller) {
+				node = left[node];
+			}
+			else if (index == smaller) {
+				return node;
+			}
+			else {
+				index -= smaller + 1;
+				node = right[node];
+			}
+		}
+	}
+
+	/** Inserts node into subtree. 
+	  * @param node root of subtree.
+	  * @param slot inserted node.
+	  * @return new root of subtree.
+	  */
+	private int insert(int node, int slot) {
+		if (node == NIL) return slot;
+		if (before(slot, node)) {
+			left[node] = insert(left[node], slot);
+			// heap priority violated -> rotate inserted node up
+			if (priority[left[node]] > priority[node]) return rotateRight(node);
+		}
+		else {
+			right[node] = insert(right[node], slot);
+			if (priority[right[node]] > priority[node]) return rotateLeft(node);
+		}
+		count[node]++;
+		return node;
+	}
+
+	/** Deletes node from subtree. 
+	  * @param node root of subtree (subtree must contain deleted node).
+	  * @param slot deleted node.
+	  * @return new root of subtree.
+	  */
+	private int delete(int node, int slot) {
+		if (node == slot) {
+			// at most one child -> replace node by it
+			if (left[node] == NIL) return right[node];
+			if (right[node] == NIL) return left[node];
+			// rotate child with higher priority up, continue below it
+			if (priority[left[node]] > priority[right[node]]) {
+				node = rotateRight(node);
+				right[node] = delete(right[node], slot);
+			}
+			else {
+				node = rotateLeft(node);
+				left[node] = delete(left[node], slot);
+			}
+		}
+		else if (before(slot, node)) {
+			left[node] = delete(left[node], slot);
+		}
+		else {
+			right[node] = delete(right[node], slot);
+		}
+		count[node] = count(left[node]) + count(right[node]) + 1;
+		return node;
+	}
+
+	/** Rotates left child of node up. 
+	  * @param node rotated node.
+	  * @return new root of subtree (former left child).
+	  */
+	private int rotateRight(int node) {
+		int child = left[node];
+		left[node] = right[child];
+		right[child] = node;
+		count[node] = count(left[node]) + count(right[node]) + 1;
+		count[child] = count(left[child]) + count[node] + 1;
+		return child;
+	}
+
+	/** Rotates right child of node up. 
+	  * @param node rotated node.
+	  * @return new root of subtree (former right child).
+	  */
+	private int rotateLeft(int node) {
+		int child = right[node];
+		right[node] = left[child];
+		left[child] = node;
+		count[node] = count(left[node]) + count(right[node]) + 1;
+		count[child] = count[node] + count(right[child]) + 1;
+		return child;
+	}
+
+	/** Compares keys (item, arrival) of two nodes. 
+	  * @param a first node.
+	  * @param b second node.
+	  * @return true if first node comes before second one.
+	  */
+	private boolean before(int a, int b) {
+		int cmp = comparator.compare(item(a), item(b));
+		return cmp < 0 || (cmp == 0 && arrivals[a] < arrivals[b]);
+	}
+
+	/** @return size of subtree (0 for NIL). */
+	private int count(int node) {
+		return node == NIL ? 0 : count[node];
+	}
+
+	// Sliding window order statistic structure for long items (no boxing).
+	public static final class OfLong {
+		// ring buffer of items in arrival order (slot of an item is also its tree node)
+		private final long[] items;
+		// arrival number of item in each slot (breaks ties between equal items -> every node has a unique key)
+		private final long[] arrivals;
+		// treap over slots ordered by (item, arrival) -> children, subtree sizes and heap priorities of nodes
+		private final int[] left, right, count, priority;
+		// root node of treap
+		private int root = NIL;
+		// slot of oldest item
+		private int oldest;
+		// number of items in window
+		private int size;
+		// arrival number of next added item
+		private long arrival;
+		// state of xorshift generator of node priorities
+		private int seed = 0x9E3779B9;
+
+		private OfLong(int capacity) {
+			// input validation
+			if (capacity < 1) throw new IllegalArgumentException("Capacity must be a positive number");
+			items = new long[capacity];
+			arrivals = new long[capacity];
+			left = new int[capacity];
+			right = new int[capacity];
+			count = new int[capacity];
+			priority = new int[capacity];
+		}
+
+		/** Adds newest item to window (oldest item is evicted first if window is full).
+		  * @param item added item.
+		  */
+		public void add(long item) {
+			if (size == items.length) evict();
+		
+			int slot = oldest + size;
+			if (slot >= items.length) slot -= items.length;
+			items[slot] = item;
+			arrivals[slot] = arrival++;
+			left[slot] = right[slot] = NIL;
+			count[slot] = 1;
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			priority[slot] = seed;
+		
+			root = insert(root, slot);
+			size++;
+		}
+
+		/** Removes oldest item from window.
+		  * @return evicted item.
+		  * @throws NoSuchElementException if window is empty.
+		  */
+		public long evict() {
+			if (size == 0) throw new NoSuchElementException("Window is empty");
+		
+			int slot = oldest;
+			long item = items[slot];
+			root = delete(root, slot);
+			oldest = slot + 1 == items.length ? 0 : slot + 1;
+			size--;
+			return item;
+		}
+
+		/** Returns k-th largest item in window.
+		  * @param k rank of item (1 -> largest).
+		  * @return k-th largest item.
+		  * @throws IllegalArgumentException if k is not between 1 and window size.
+		  */
+		public long kthLargest(int k) {
+			if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+			return items[select(size - k)];
+		}
+
+		/** Returns k-th smallest item in window.
+		  * @param k rank of item (1 -> smallest).
+		  * @return k-th smallest item.
+		  * @throws IllegalArgumentException if k is not between 1 and window size.
+		  */
+		public long kthSmallest(int k) {
+			if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+			return items[select(k - 1)];
+		}
+
+		/** Returns quantile of items in window using nearest rank method (e.g. 0.99 -> p99).
+		  * @param q quantile in range [0, 1].
+		  * @return smallest item such that at least q of items in window are not greater than it.
+		  * @throws IllegalArgumentException if q is not in range [0, 1].
+		  * @throws NoSuchElementException if window is empty.
+		  */
+		public long quantile(double q) {
+			if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("Quantile must be in range [0, 1]");
+			if (size == 0) throw new NoSuchElementException("Window is empty");
+			return items[select(Math.max(1, (int) Math.ceil(q * size)) - 1)];
+		}
+
+		/** Returns rank of given value in window. 
+		  * @param value compared value (does not need to be in window).
+		  * @return number of items in window smaller than value.
+		  */
+		public int rank(long value) {
+			int rank = 0;
+			for (int node = root; node != NIL; ) {
+				if (items[node] < value) {
+					rank += count(left[node]) + 1;
+					node = right[node];
+				}
+				else {
+					node = left[node];
+				}
+			}
+			return rank;
+		}
+
+		/** @return number of items in window. */
+		public int size() {
+			return size;
+		}
+
+		/** @return maximum number of items in window. */
+		public int capacity() {
+			return items.length;
+		}
+
+		/** Removes all items from window. */
+		public void clear() {
+			root = NIL;
+			oldest = size = 0;
+		}
+
+		/** Finds node of item with given index in ascending order. 
+		  * @param index index of item (0 -> smallest).
+		  * @return node (slot) of item.
+		  */
+		private int select(int index) {
+			int node = root;
+			while (true) {
+				int smaller = count(left[node]);
+				if (index < smaller) {
+					node = left[node];
+				}
+				else if (index == smaller) {
+					return node;
+				}
+				else {
+					index -= smaller + 1;
+					node = right[node];
+				}
+			}
+		}
+
+		/** Inserts node into subtree. 
+		  * @param node root of subtree.
+		  * @param slot inserted node.
+		  * @return new root of subtree.
+		  */
+		private int insert(int node, int slot) {
+			if (node == NIL) return slot;
+			if (before(slot, node)) {
+				left[node] = insert(left[node], slot);
+				// heap priority violated -> rotate inserted node up
+				if (priority[left[node]] > priority[node]) return rotateRight(node);
+			}
+			else {
+				right[node] = insert(right[node], slot);
+				if (priority[right[node]] > priority[node]) return rotateLeft(node);
+			}
+			count[node]++;
+			return node;
+		}
+
+		/** Deletes node from subtree. 
+		  * @param node root of subtree (subtree must contain deleted node).
+		  * @param slot deleted node.
+		  * @return new root of subtree.
+		  */
+		private int delete(int node, int slot) {
+			if (node == slot) {
+				// at most one child -> replace node by it
+				if (left[node] == NIL) return right[node];
+				if (right[node] == NIL) return left[node];
+				// rotate child with higher priority up, continue below it
+				if (priority[left[node]] > priority[right[node]]) {
+					node = rotateRight(node);
+					right[node] = delete(right[node], slot);
+				}
+				else {
+					node = rotateLeft(node);
+					left[node] = delete(left[node], slot);
+				}
+			}
+			else if (before(slot, node)) {
+				left[node] = delete(left[node], slot);
+			}
+			else {
+				right[node] = delete(right[node], slot);
+			}
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			return node;
+		}
+
+		/** Rotates left child of node up. 
+		  * @param node rotated node.
+		  * @return new root of subtree (former left child).
+		  */
+		private int rotateRight(int node) {
+			int child = left[node];
+			left[node] = right[child];
+			right[child] = node;
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			count[child] = count(left[child]) + count[node] + 1;
+			return child;
+		}
+
+		/** Rotates right child of node up. 
+		  * @param node rotated node.
+		  * @return new root of subtree (former right child).
+		  */
+		private int rotateLeft(int node) {
+			int child = right[node];
+			right[node] = left[child];
+			left[child] = node;
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			count[child] = count[node] + count(right[child]) + 1;
+			return child;
+		}
+
+		/** Compares keys (item, arrival) of two nodes. 
+		  * @param a first node.
+		  * @param b second node.
+		  * @return true if first node comes before second one.
+		  */
+		private boolean before(int a, int b) {
+			int cmp = Long.compare(items[a], items[b]);
+			return cmp < 0 || (cmp == 0 && arrivals[a] < arrivals[b]);
+		}
+
+		/** @return size of subtree (0 for NIL). */
+		private int count(int node) {
+			return node == NIL ? 0 : count[node];
+		}
+	}
+
+	// Sliding window order statistic structure for double items (no boxing).
+	public static final class OfDouble {
+		// ring buffer of items in arrival order (slot of an item is also its tree node)
+		private final double[] items;
+		// arrival number of item in each slot (breaks ties between equal items -> every node has a unique key)
+		private final long[] arrivals;
+		// treap over slots ordered by (item, arrival) -> children, subtree sizes and heap priorities of nodes
+		private final int[] left, right, count, priority;
+		// root node of treap
+		private int root = NIL;
+		// slot of oldest item
+		private int oldest;
+		// number of items in window
+		private int size;
+		// arrival number of next added item
+		private long arrival;
+		// state of xorshift generator of node priorities
+		private int seed = 0x9E3779B9;
+
+		private OfDouble(int capacity) {
+			// input validation
+			if (capacity < 1) throw new IllegalArgumentException("Capacity must be a positive number");
+			items = new double[capacity];
+			arrivals = new long[capacity];
+			left = new int[capacity];
+			right = new int[capacity];
+			count = new int[capacity];
+			priority = new int[capacity];
+		}
+
+		/** Adds newest item to window (oldest item is evicted first if window is full).
+		  * @param item added item.
+		  */
+		public void add(double item) {
+			if (size == items.length) evict();
+		
+			int slot = oldest + size;
+			if (slot >= items.length) slot -= items.length;
+			items[slot] = item;
+			arrivals[slot] = arrival++;
+			left[slot] = right[slot] = NIL;
+			count[slot] = 1;
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			priority[slot] = seed;
+		
+			root = insert(root, slot);
+			size++;
+		}
+
+		/** Removes oldest item from window.
+		  * @return evicted item.
+		  * @throws NoSuchElementException if window is empty.
+		  */
+		public double evict() {
+			if (size == 0) throw new NoSuchElementException("Window is empty");
+		
+			int slot = oldest;
+			double item = items[slot];
+			root = delete(root, slot);
+			oldest = slot + 1 == items.length ? 0 : slot + 1;
+			size--;
+			return item;
+		}
+
+		/** Returns k-th largest item in window.
+		  * @param k rank of item (1 -> largest).
+		  * @return k-th largest item.
+		  * @throws IllegalArgumentException if k is not between 1 and window size.
+		  */
+		public double kthLargest(int k) {
+			if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+			return items[select(size - k)];
+		}
+
+		/** Returns k-th smallest item in window.
+		  * @param k rank of item (1 -> smallest).
+		  * @return k-th smallest item.
+		  * @throws IllegalArgumentException if k is not between 1 and window size.
+		  */
+		public double kthSmallest(int k) {
+			if (k < 1 || k > size) throw new IllegalArgumentException("k must be between 1 and window size");
+			return items[select(k - 1)];
+		}
+
+		/** Returns quantile of items in window using nearest rank method (e.g. 0.99 -> p99).
+		  * @param q quantile in range [0, 1].
+		  * @return smallest item such that at least q of items in window are not greater than it.
+		  * @throws IllegalArgumentException if q is not in range [0, 1].
+		  * @throws NoSuchElementException if window is empty.
+		  */
+		public double quantile(double q) {
+			if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("Quantile must be in range [0, 1]");
+			if (size == 0) throw new NoSuchElementException("Window is empty");
+			return items[select(Math.max(1, (int) Math.ceil(q * size)) - 1)];
+		}
+
+		/** Returns rank of given value in window. 
+		  * @param value compared value (does not need to be in window).
+		  * @return number of items in window smaller than value.
+		  */
+		public int rank(double value) {
+			int rank = 0;
+			for (int node = root; node != NIL; ) {
+				if (Double.compare(items[node], value) < 0) {
+					rank += count(left[node]) + 1;
+					node = right[node];
+				}
+				else {
+					node = left[node];
+				}
+			}
+			return rank;
+		}
+
+		/** @return number of items in window. */
+		public int size() {
+			return size;
+		}
+
+		/** @return maximum number of items in window. */
+		public int capacity() {
+			return items.length;
+		}
+
+		/** Removes all items from window. */
+		public void clear() {
+			root = NIL;
+			oldest = size = 0;
+		}
+
+		/** Finds node of item with given index in ascending order. 
+		  * @param index index of item (0 -> smallest).
+		  * @return node (slot) of item.
+		  */
+		private int select(int index) {
+			int node = root;
+			while (true) {
+				int smaller = count(left[node]);
+				if (index < smaller) {
+					node = left[node];
+				}
+				else if (index == smaller) {
+					return node;
+				}
+				else {
+					index -= smaller + 1;
+					node = right[node];
+				}
+			}
+		}
+
+		/** Inserts node into subtree. 
+		  * @param node root of subtree.
+		  * @param slot inserted node.
+		  * @return new root of subtree.
+		  */
+		private int insert(int node, int slot) {
+			if (node == NIL) return slot;
+			if (before(slot, node)) {
+				left[node] = insert(left[node], slot);
+				// heap priority violated -> rotate inserted node up
+				if (priority[left[node]] > priority[node]) return rotateRight(node);
+			}
+			else {
+				right[node] = insert(right[node], slot);
+				if (priority[right[node]] > priority[node]) return rotateLeft(node);
+			}
+			count[node]++;
+			return node;
+		}
+
+		/** Deletes node from subtree. 
+		  * @param node root of subtree (subtree must contain deleted node).
+		  * @param slot deleted node.
+		  * @return new root of subtree.
+		  */
+		private int delete(int node, int slot) {
+			if (node == slot) {
+				// at most one child -> replace node by it
+				if (left[node] == NIL) return right[node];
+				if (right[node] == NIL) return left[node];
+				// rotate child with higher priority up, continue below it
+				if (priority[left[node]] > priority[right[node]]) {
+					node = rotateRight(node);
+					right[node] = delete(right[node], slot);
+				}
+				else {
+					node = rotateLeft(node);
+					left[node] = delete(left[node], slot);
+				}
+			}
+			else if (before(slot, node)) {
+				left[node] = delete(left[node], slot);
+			}
+			else {
+				right[node] = delete(right[node], slot);
+			}
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			return node;
+		}
+
+		/** Rotates left child of node up. 
+		  * @param node rotated node.
+		  * @return new root of subtree (former left child).
+		  */
+		private int rotateRight(int node) {
+			int child = left[node];
+			left[node] = right[child];
+			right[child] = node;
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			count[child] = count(left[child]) + count[node] + 1;
+			return child;
+		}
+
+		/** Rotates right child of node up. 
+		  * @param node rotated node.
+		  * @return new root of subtree (former right child).
+		  */
+		private int rotateLeft(int node) {
+			int child = right[node];
+			right[node] = left[child];
+			left[child] = node;
+			count[node] = count(left[node]) + count(right[node]) + 1;
+			count[child] = count[node] + count(right[child]) + 1;
+			return child;
+		}
+
+		/** Compares keys (item, arrival) of two nodes. 
+		  * @param a first node.
+		  * @param b second node.
+		  * @return true if first node comes before second one.
+		  */
+		private boolean before(int a, int b) {
+			int cmp = Double.compare(items[a], items[b]);
+			return cmp < 0 || (cmp == 0 && arrivals[a] < arrivals[b]);
+		}
+
+		/** @return size of subtree (0 for NIL). */
+		private int count(int node) {
+			return node == NIL ? 0 : count[node];
+		}
+	}
+}
@@ -0,0 +1,254 @@
+/**
+ * This file contains a cache-friendly static search index (static B+-tree) built once from a sorted array. 
+ * Each node holds one cache line of keys, so a lookup touches about log_(B+1) n cache lines instead of log_2 n
+ * (binary search probes a new, far away cache line on almost every step of a large array). 
+ * Leaves hold the sorted keys in their original order, so the found leaf position is directly the index in the sorted array. 
+ * Child selection inside a node is a branchless count of keys less than the searched key 
+ * (whole node is compared by a single SIMD comparison if the Vector API is available -> VectorOps). 
+ * 
+ * Time complexity: 	O(n) build, O(log n) lookup with O(log_B n) cache misses
+ * Space complexity: 	O(n)
+ * 		n -> size of indexed array
+ * 		B -> number of keys per node (16 int or 8 long keys)
+ * 
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.searching;
+
+import java.util.Arrays;
+
+import com.mgazdovic.algo.vector.VectorOps;
+
+public class StaticBTreeIndex {
+	
+	// maximum size of backing array (leaves and internal nodes)
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	
+	/** Builds search index over sorted int array. 
+	  * @param sorted array sorted in ascending order (not modified, not referenced after build).
+	  * @return search index returning positions within sorted array.
+	  * @throws IllegalArgumentException if input is null or too large.
+	  */
+	public static OfInt of(int[] sorted) {
+		return new OfInt(sorted);
+	}
+	
+	/** Builds search index over sorted long array. 
+	  * @param sorted array sorted in ascending order (not modified, not referenced after build).
+	  * @return search index returning positions within sorted array.
+	  * @throws IllegalArgumentException if input is null or too large.
+	  */
+	public static OfLong of(long[] sorted) {
+		return new OfLong(sorted);
+	}
+
+	// Static B+-tree search index over int keys (16 keys per node -> one cache line).
+	public static final class OfInt {
+		// keys per node (16 int keys = 64 bytes)
+		private static final int B = 16;
+		
+		// all nodes: leaves (sorted keys, padded) at [0, leaves * B>, followed by internal layers (bottom -> top)
+		private final int[] keys;
+		// starting offset of each layer within keys (layer 0 = leaves)
+		private final int[] offset;
+		// number of indexed keys
+		private final int n;
+		
+		private OfInt(int[] sorted) {
+			// input validation
+			if (sorted == null) throw new IllegalArgumentException("Input cannot be null");
+			
+			n = sorted.length;
+			
+			// number of nodes in each layer (leaves hold B keys, internal nodes have B + 1 children)
+			int[] nodes = new int[32];
+			int layers = 0;
+			for (long count = Math.max(1, (n + B - 1) / B); ; count = (count + B) / (B + 1)) {
+				nodes[layers++] = (int) count;
+				if (count == 1) break;
+			}
+			
+			// layer offsets within keys array
+			offset = new int[layers + 1];
+			long total = 0;
+			for (int h = 0; h < layers; h++) {
+				total += (long) nodes[h] * B;
+				if (total > MAX_ARRAY_SIZE) throw new IllegalArgumentException("Input is too large");
+				offset[h + 1] = (int) total;
+			}
+			keys = new int[(int) total];
+			
+			// leaves -> sorted keys padded with max value
+			System.arraycopy(sorted, 0, keys, 0, n);
+			Arrays.fill(keys, n, offset[1], Integer.MAX_VALUE);
+			
+			// internal layers -> key j of a node is the smallest key in subtree of child j + 1
+			long leavesPerChild = 1;
+			for (int h = 1; h < layers; h++) {
+				int from = offset[h];
+				int to = offset[h + 1];
+				for (int i = from; i < to; i++) {
+					long child = (long) ((i - from) / B) * (B + 1) + (i - from) % B + 1;
+					long leafStart = child * leavesPerChild * B;
+					keys[i] = leafStart < n ? sorted[(int) leafStart] : Integer.MAX_VALUE;
+				}
+				leavesPerChild *= B + 1;
+			}
+			
+			assert isSorted(sorted);
+		}
+		
+		/** Finds key in indexed array.
+		  * @param key that is being searched for.
+		  * @return index of found element within original sorted array (-1 if not found);
+		  * for duplicate keys it is the same index as {@link BinarySearch#find(int[], int)} returns.
+		  */
+		public int find(int key) {
+			int position = lowerBound(key);
+			if (position == n || keys[position] != key) return -1;
+			
+			// equal range [position, end> (second descent for the next key) -> replay midpoints of BinarySearch.find
+			int end = key == Integer.MAX_VALUE ? n : lowerBound(key + 1);
+			return BinarySearch.findPosition(position, end, n);
+		}
+		
+		/** Finds index of first key which is greater than or equal to given key.
+		  * @param key that is being searched for.
+		  * @return index of first element not less than key within original sorted array (size if there is none).
+		  */
+		public int lowerBound(int key) {
+			final int[] keys = this.keys;
+			
+			// descend from root -> child index = number of node keys less than searched key (whole node at once)
+			int node = 0;
+			for (int h = offset.length - 2; h > 0; h--) {
+				int base = offset[h] + node * B;
+				int child = VectorOps.countLess(keys, base, base + B, key);
+				node = node * (B + 1) + child;
+			}
+			
+			// leaf -> position within sorted keys (may point to start of next leaf)
+			int base = node * B;
+			int position = base + VectorOps.countLess(keys, base, base + B, key);
+			return Math.min(position, n);
+		}
+		
+		/** @return number of indexed keys. */
+		public int size() {
+			return n;
+		}
+		
+		private static boolean isSorted(int[] input) {
+			for (int i = 1; i < input.length; i++) {
+				if (input[i] < input[i-1]) return false;
+			}
+			return true;
+		}
+	}
+
+	// Static B+-tree search index over long keys (8 keys per node -> one cache line).
+	public static final class OfLong {
+		// keys per node (8 long keys = 64 bytes)
+		private static final int B = 8;
+		
+		// all nodes: leaves (sorted keys, padded) at [0, leaves * B>, followed by internal layers (bottom -> top)
+		private final long[] keys;
+		// starting offset of each layer within keys (layer 0 = leaves)
+		private final int[] offset;
+		// number of indexed keys
+		private final int n;
+		
+		private OfLong(long[] sorted) {
+			// input validation
+			if (sorted == null) throw new IllegalArgumentException("Input cannot be null");
+			
+			n = sorted.length;
+			
+			// number of nodes in each layer (leaves hold B keys, internal nodes have B + 1 children)
+			int[] nodes = new int[32];
+			int layers = 0;
+			for (long count = Math.max(1, (n + B - 1) / B); ; count = (count + B) / (B + 1)) {
+				nodes[layers++] = (int) count;
+				if (count == 1) break;
+			}
+			
+			// layer offsets within keys array
+			offset = new int[layers + 1];
+			long total = 0;
+			for (int h = 0; h < layers; h++) {
+				total += (long) nodes[h] * B;
+				if (total > MAX_ARRAY_SIZE) throw new IllegalArgumentException("Input is too large");
+				offset[h + 1] = (int) total;
+			}
+			keys = new long[(int) total];
+			
+			// leaves -> sorted keys padded with max value
+			System.arraycopy(sorted, 0, keys, 0, n);
+			Arrays.fill(keys, n, offset[1], Long.MAX_VALUE);
+			
+			// internal layers -> key j of a node is the smallest key in subtree of child j + 1
+			long leavesPerChild = 1;
+			for (int h = 1; h < layers; h++) {
+				int from = offset[h];
+				int to = offset[h + 1];
+				for (int i = from; i < to; i++) {
+					long child = (long) ((i - from) / B) * (B + 1) + (i - from) % B + 1;
+					long leafStart = child * leavesPerChild * B;
+					keys[i] = leafStart < n ? sorted[(int) leafStart] : Long.MAX_VALUE;
+				}
+				leavesPerChild *= B + 1;
+			}
+			
+			assert isSorted(sorted);
+		}
+		
+		/** Finds key in indexed array.
+		  * @param key that is being searched for.
+		  * @return index of found element within original sorted array (-1 if not found);
+		  * for duplicate keys it is the same index as {@link BinarySearch#find(long[], long)} returns.
+		  */
+		public int find(long key) {
+			int position = lowerBound(key);
+			if (position == n || keys[position] != key) return -1;
+			
+			// equal range [position, end> (second descent for the next key) -> replay midpoints of BinarySearch.find
+			int end = key == Long.MAX_VALUE ? n : lowerBound(key + 1);
+			return BinarySearch.findPosition(position, end, n);
+		}
+		
+		/** Finds index of first key which is greater than or equal to given key.
+		  * @param key that is being searched for.
+		  * @return index of first element not less than key within original sorted array (size if there is none).
+		  */
+		public int lowerBound(long key) {
+			final long[] keys = this.keys;
+			
+			// descend from root -> child index = number of node keys less than searched key (whole node at once)
+			int node = 0;
+			for (int h = offset.length - 2; h > 0; h--) {
+				int base = offset[h] + node * B;
+				int child = VectorOps.countLess(keys, base, base + B, key);
+				node = node * (B + 1) + child;
+			}
+			
+			// leaf -> position within sorted keys (may point to start of next leaf)
+			int base = node * B;
+			int position = base + VectorOps.countLess(keys, base, base + B, key);
+			return Math.min(position, n);
+		}
+		
+		/** @return number of indexed keys. */
+		public int size() {
+			return n;
+		}
+		
+		private static boolean isSorted(long[] input) {
+			for (int i = 1; i < input.length; i++) {
+				if (input[i] < input[i-1]) return false;
+			}
+			return true;
+		}
+	}
+}
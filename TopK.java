@@ -0,0 +1,599 @@
+/**
+ * This file contains a streaming top-k accumulator (k largest items seen so far) over unbounded input. 
+ * Items are kept in a fixed-capacity array-backed min heap of size k -> root is the current k-th largest item. 
+ * Every offered item is first compared against the root (threshold), so most items of a long stream are rejected 
+ * with a single comparison and without any heap work. Accumulators built on different threads or partitions can be merged. 
+ * Accumulators are not thread-safe (use one per thread and merge them). 
+ * 
+ * Time complexity: 	O(1) rejected offer, O(log k) accepted offer, O(k log k) sorted top k
+ * Space complexity: 	O(k)
+ * 		k -> number of largest items kept
+ * 
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.searching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+public class TopK<T> {
+	
+	// comparator defining item order
+	private final Comparator<? super T> comparator;
+	// min heap of k largest items (root -> k-th largest)
+	private final Object[] heap;
+	// number of items in heap
+	private int size;
+	
+	/** Creates top-k accumulator ordered by given comparator. 
+	  * @param k number of largest items to be kept.
+	  * @param comparator comparator defining item order.
+	  * @throws IllegalArgumentException if k is not positive or comparator is null.
+	  */
+	public TopK(int k, Comparator<? super T> comparator) {
+		// input validation
+		if (k < 1) throw new IllegalArgumentException("k must be a positive number");
+		if (comparator == null) throw new IllegalArgumentException("Comparator cannot be null");
+		
+		this.comparator = comparator;
+		this.heap = new Object[k];
+	}
+	
+	/** Creates top-k accumulator using natural ordering. 
+	  * @param k number of largest items to be kept.
+	  * @return empty accumulator.
+	  * @throws IllegalArgumentException if k is not positive.
+	  */
+	public static <T extends Comparable<T>> TopK<T> naturalOrder(int k) {
+		return new TopK<>(k, Comparator.<T>naturalOrder());
+	}
+	
+	/** Creates top-k accumulator for int items. 
+	  * @param k number of largest items to be kept.
+	  * @return empty accumulator.
+	  * @throws IllegalArgumentException if k is not positive.
+	  */
+	public static OfInt ofInt(int k) {
+		return new OfInt(k);
+	}
+	
+	/** Creates top-k accumulator for long items. 
+	  * @param k number of largest items to be kept.
+	  * @return empty accumulator.
+	  * @throws IllegalArgumentException if k is not positive.
+	  */
+	public static OfLong ofLong(int k) {
+		return new OfLong(k);
+	}
+	
+	/** Creates top-k accumulator for double items (ordered as by {@link Double#compare(double, double)}, NaN largest). 
+	  * @param k number of largest items to be kept.
+	  * @return empty accumulator.
+	  * @throws IllegalArgumentException if k is not positive.
+	  */
+	public static OfDouble ofDouble(int k) {
+		return new OfDouble(k);
+	}
+	
+	/** Offers item to accumulator. 
+	  * @param item offered item.
+	  * @return true if item is (currently) among k largest items; false if it was rejected.
+	  */
+	public boolean offer(T item) {
+		// heap not full yet -> add
+		if (size < heap.length) {
+			heap[size] = item;
+			siftUp(size++);
+			return true;
+		}
+		// threshold -> not greater than current k-th largest
+		if (comparator.compare(item, root()) <= 0) return false;
+		
+		// replace root
+		heap[0] = item;
+		siftDown(0);
+		return true;
+	}
+	
+	/** Offers all remaining items of an iterator. 
+	  * @param items iterator of offered items.
+	  */
+	public void offerAll(Iterator<? extends T> items) {
+		while (items.hasNext()) {
+			offer(items.next());
+		}
+	}
+	
+	/** Offers all remaining items of a spliterator. 
+	  * @param items spliterator of offered items.
+	  */
+	public void offerAll(Spliterator<? extends T> items) {
+		items.forEachRemaining(this::offer);
+	}
+	
+	/** Merges other accumulator (e.g. built on another thread or partition) into this one. 
+	  * @param other accumulator whose items are offered to this one (not modified, unless it is this accumulator).
+	  * @return this accumulator.
+	  */
+	@SuppressWarnings("unchecked")
+	public TopK<T> merge(TopK<? extends T> other) {
+		// merge with itself -> offer from a copy (offers reorder heap and change size)
+		Object[] items = other == this ? Arrays.copyOf(heap, size) : other.heap;
+		for (int i = 0, count = other.size; i < count; i++) {
+			offer((T) items[i]);
+		}
+		return this;
+	}
+	
+	/** Returns k-th largest item offered so far. 
+	  * @return k-th largest item.
+	  * @throws NoSuchElementException if fewer than k items were offered.
+	  */
+	public T kth() {
+		if (size < heap.length) throw new NoSuchElementException("Fewer than k items offered");
+		return root();
+	}
+	
+	/** Returns (up to) k largest items offered so far. 
+	  * @return list of largest items sorted in descending order.
+	  */
+	@SuppressWarnings("unchecked")
+	public List<T> topK() {
+		List<T> items = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			items.add((T) heap[i]);
+		}
+		items.sort(comparator.reversed());
+		return items;
+	}
+	
+	/** @return number of items currently kept (at most k). */
+	public int size() {
+		return size;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private T root() {
+		return (T) heap[0];
+	}
+	
+	/** Restores min heap property by moving element at index up the heap. 
+	  * @param index index of element which is moved up.
+	  */
+	@SuppressWarnings("unchecked")
+	private void siftUp(int index) {
+		T item = (T) heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (comparator.compare(item, (T) heap[parent]) >= 0) break;
+			heap[index] = heap[parent];
+			index = parent;
+		}
+		heap[index] = item;
+	}
+	
+	/** Restores min heap property by moving element at index down the heap. 
+	  * @param index index of element which is moved down.
+	  */
+	@SuppressWarnings("unchecked")
+	private void siftDown(int index) {
+		final int n = size;
+		T item = (T) heap[index];
+		int child;
+		while ((child = 2*index + 1) < n) {
+			// pick smaller child
+			if (child + 1 < n && comparator.compare((T) heap[child + 1], (T) heap[child]) < 0) child++;
+			if (comparator.compare(item, (T) heap[child]) <= 0) break;
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = item;
+	}
+
+	// Top-k accumulator for int items (no boxing).
+	public static final class OfInt {
+		// min heap of k largest items (root -> k-th largest)
+		private final int[] heap;
+		// number of items in heap
+		private int size;
+		
+		private OfInt(int k) {
+			// input validation
+			if (k < 1) throw new IllegalArgumentException("k must be a positive number");
+			heap = new int[k];
+		}
+		
+		/** Offers item to accumulator. 
+		  * @param item offered item.
+		  * @return true if item is (currently) among k largest items; false if it was rejected.
+		  */
+		public boolean offer(int item) {
+			// heap not full yet -> add
+			if (size < heap.length) {
+				heap[size] = item;
+				siftUp(size++);
+				return true;
+			}
+			// threshold -> not greater than current k-th largest
+			if (item <= heap[0]) return false;
+			
+			// replace root
+			heap[0] = item;
+			siftDown(0);
+			return true;
+		}
+		
+		/** Offers all items of an array. 
+		  * @param items offered items.
+		  */
+		public void offerAll(int[] items) {
+			for (int item : items) {
+				offer(item);
+			}
+		}
+		
+		/** Offers all remaining items of an iterator. 
+		  * @param items iterator of offered items.
+		  */
+		public void offerAll(PrimitiveIterator.OfInt items) {
+			while (items.hasNext()) {
+				offer(items.nextInt());
+			}
+		}
+		
+		/** Offers all remaining items of a spliterator. 
+		  * @param items spliterator of offered items.
+		  */
+		public void offerAll(Spliterator.OfInt items) {
+			items.forEachRemaining((IntConsumer) this::offer);
+		}
+		
+		/** Merges other accumulator (e.g. built on another thread or partition) into this one. 
+		  * @param other accumulator whose items are offered to this one (not modified, unless it is this accumulator).
+		  * @return this accumulator.
+		  */
+		public OfInt merge(OfInt other) {
+			// merge with itself -> offer from a copy (offers reorder heap and change size)
+			int[] items = other == this ? Arrays.copyOf(heap, size) : other.heap;
+			for (int i = 0, count = other.size; i < count; i++) {
+				offer(items[i]);
+			}
+			return this;
+		}
+		
+		/** Returns k-th largest item offered so far. 
+		  * @return k-th largest item.
+		  * @throws NoSuchElementException if fewer than k items were offered.
+		  */
+		public int kth() {
+			if (size < heap.length) throw new NoSuchElementException("Fewer than k items offered");
+			return heap[0];
+		}
+		
+		/** Returns (up to) k largest items offered so far. 
+		  * @return array of largest items sorted in descending order.
+		  */
+		public int[] topK() {
+			int[] items = Arrays.copyOf(heap, size);
+			Arrays.sort(items);
+			// ascending -> descending
+			for (int i = 0, j = items.length - 1; i < j; i++, j--) {
+				int temp = items[i];
+				items[i] = items[j];
+				items[j] = temp;
+			}
+			return items;
+		}
+		
+		/** @return number of items currently kept (at most k). */
+		public int size() {
+			return size;
+		}
+		
+		/** Restores min heap property by moving element at index up the heap. 
+		  * @param index index of element which is moved up.
+		  */
+		private void siftUp(int index) {
+			int item = heap[index];
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				if (item >= heap[parent]) break;
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = item;
+		}
+		
+		/** Restores min heap property by moving element at index down the heap. 
+		  * @param index index of element which is moved down.
+		  */
+		private void siftDown(int index) {
+			final int n = size;
+			int item = heap[index];
+			int child;
+			while ((child = 2*index + 1) < n) {
+				// pick smaller child
+				if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+				if (item <= heap[child]) break;
+				heap[index] = heap[child];
+				index = child;
+			}
+			heap[index] = item;
+		}
+	}
+
+	// Top-k accumulator for long items (no boxing).
+	public static final class OfLong {
+		// min heap of k largest items (root -> k-th largest)
+		private final long[] heap;
+		// number of items in heap
+		private int size;
+		
+		private OfLong(int k) {
+			// input validation
+			if (k < 1) throw new IllegalArgumentException("k must be a positive number");
+			heap = new long[k];
+		}
+		
+		/** Offers item to accumulator. 
+		  * @param item offered item.
+		  * @return true if item is (currently) among k largest items; false if it was rejected.
+		  */
+		public boolean offer(long item) {
+			// heap not full yet -> add
+			if (size < heap.length) {
+				heap[size] = item;
+				siftUp(size++);
+				return true;
+			}
+			// threshold -> not greater than current k-th largest
+			if (item <= heap[0]) return false;
+			
+			// replace root
+			heap[0] = item;
+			siftDown(0);
+			return true;
+		}
+		
+		/** Offers all items of an array. 
+		  * @param items offered items.
+		  */
+		public void offerAll(long[] items) {
+			for (long item : items) {
+				offer(item);
+			}
+		}
+		
+		/** Offers all remaining items of an iterator. 
+		  * @param items iterator of offered items.
+		  */
+		public void offerAll(PrimitiveIterator.OfLong items) {
+			while (items.hasNext()) {
+				offer(items.nextLong());
+			}
+		}
+		
+		/** Offers all remaining items of a spliterator. 
+		  * @param items spliterator of offered items.
+		  */
+		public void offerAll(Spliterator.OfLong items) {
+			items.forEachRemaining((LongConsumer) this::offer);
+		}
+		
+		/** Merges other accumulator (e.g. built on another thread or partition) into this one. 
+		  * @param other accumulator whose items are offered to this one (not modified, unless it is this accumulator).
+		  * @return this accumulator.
+		  */
+		public OfLong merge(OfLong other) {
+			// merge with itself -> offer from a copy (offers reorder heap and change size)
+			long[] items = other == this ? Arrays.copyOf(heap, size) : other.heap;
+			for (int i = 0, count = other.size; i < count; i++) {
+				offer(items[i]);
+			}
+			return this;
+		}
+		
+		/** Returns k-th largest item offered so far. 
+		  * @return k-th largest item.
+		  * @throws NoSuchElementException if fewer than k items were offered.
+		  */
+		public long kth() {
+			if (size < heap.length) throw new NoSuchElementException("Fewer than k items offered");
+			return heap[0];
+		}
+		
+		/** Returns (up to) k largest items offered so far. 
+		  * @return array of largest items sorted in descending order.
+		  */
+		public long[] topK() {
+			long[] items = Arrays.copyOf(heap, size);
+			Arrays.sort(items);
+			// ascending -> descending
+			for (int i = 0, j = items.length - 1; i < j; i++, j--) {
+				long temp = items[i];
+				items[i] = items[j];
+				items[j] = temp;
+			}
+			return items;
+		}
+		
+		/** @return number of items currently kept (at most k). */
+		public int size() {
+			return size;
+		}
+		
+		/** Restores min heap property by moving element at index up the heap. 
+		  * @param index index of element which is moved up.
+		  */
+		private void siftUp(int index) {
+			long item = heap[index];
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				if (item >= heap[parent]) break;
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = item;
+		}
+		
+		/** Restores min heap property by moving element at index down the heap. 
+		  * @param index index of element which is moved down.
+		  */
+		private void siftDown(int index) {
+			final int n = size;
+			long item = heap[index];
+			int child;
+			while ((child = 2*index + 1) < n) {
+				// pick smaller child
+				if (child + 1 < n && heap[child + 1] < heap[child]) child++;
+				if (item <= heap[child]) break;
+				heap[index] = heap[child];
+				index = child;
+			}
+			heap[index] = item;
+		}
+	}
+
+	// Top-k accumulator for double items (no boxing).
+	public static final class OfDouble {
+		// min heap of k largest items (root -> k-th largest)
+		private final double[] heap;
+		// number of items in heap
+		private int size;
+		
+		private OfDouble(int k) {
+			// input validation
+			if (k < 1) throw new IllegalArgumentException("k must be a positive number");
+			heap = new double[k];
+		}
+		
+		/** Offers item to accumulator. 
+		  * @param item offered item.
+		  * @return true if item is (currently) among k largest items; false if it was rejected.
+		  */
+		public boolean offer(double item) {
+			// heap not full yet -> add
+			if (size < heap.length) {
+				heap[size] = item;
+				siftUp(size++);
+				return true;
+			}
+			// threshold -> not greater than current k-th largest
+			if (Double.compare(item, heap[0]) <= 0) return false;
+			
+			// replace root
+			heap[0] = item;
+			siftDown(0);
+			return true;
+		}
+		
+		/** Offers all items of an array. 
+		  * @param items offered items.
+		  */
+		public void offerAll(double[] items) {
+			for (double item : items) {
+				offer(item);
+			}
+		}
+		
+		/** Offers all remaining items of an iterator. 
+		  * @param items iterator of offered items.
+		  */
+		public void offerAll(PrimitiveIterator.OfDouble items) {
+			while (items.hasNext()) {
+				offer(items.nextDouble());
+			}
+		}
+		
+		/** Offers all remaining items of a spliterator. 
+		  * @param items spliterator of offered items.
+		  */
+		public void offerAll(Spliterator.OfDouble items) {
+			items.forEachRemaining((DoubleConsumer) this::offer);
+		}
+		
+		/** Merges other accumulator (e.g. built on another thread or partition) into this one. 
+		  * @param other accumulator whose items are offered to this one (not modified, unless it is this accumulator).
+		  * @return this accumulator.
+		  */
+		public OfDouble merge(OfDouble other) {
+			// merge with itself -> offer from a copy (offers reorder heap and change size)
+			double[] items = other == this ? Arrays.copyOf(heap, size) : other.heap;
+			for (int i = 0, count = other.size; i < count; i++) {
+				offer(items[i]);
+			}
+			return this;
+		}
+		
+		/** Returns k-th largest item offered so far. 
+		  * @return k-th largest item.
+		  * @throws NoSuchElementException if fewer than k items were offered.
+		  */
+		public double kth() {
+			if (size < heap.length) throw new NoSuchElementException("Fewer than k items offered");
+			return heap[0];
+		}
+		
+		/** Returns (up to) k largest items offered so far. 
+		  * @return array of largest items sorted in descending order.
+		  */
+		public double[] topK() {
+			double[] items = Arrays.copyOf(heap, size);
+			Arrays.sort(items);
+			// ascending -> descending
+			for (int i = 0, j = items.length - 1; i < j; i++, j--) {
+				double temp = items[i];
+				items[i] = items[j];
+				items[j] = temp;
+			}
+			return items;
+		}
+		
+		/** @return number of items currently kept (at most k). */
+		public int size() {
+			return size;
+		}
+		
+		/** Restores min heap property by moving element at index up the heap. 
+		  * @param index index of element which is moved up.
+		  */
+		private void siftUp(int index) {
+			double item = heap[index];
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				if (Double.compare(item, heap[parent]) >= 0) break;
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = item;
+		}
+		
+		/** Restores min heap property by moving element at index down the heap. 
+		  * @param index index of element which is moved down.
+		  */
+		private void siftDown(int index) {
+			final int n = size;
+			double item = heap[index];
+			int child;
+			while ((child = 2*index + 1) < n) {
+				// pick smaller child
+				if (child + 1 < n && Double.compare(heap[child + 1], heap[child]) < 0) child++;
+				if (Double.compare(item, heap[child]) <= 0) break;
+				heap[index] = heap[child];
+				index = child;
+			}
+			heap[index] = item;
+		}
+	}
+}
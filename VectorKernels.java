@@ -0,0 +1,233 @@
+/**
+ * This file contains Vector API (jdk.incubator.vector) implementations of VectorOps kernels.
+ * It is the only class which references the incubator module and it is loaded only if the module is present.
+ *
+ * Scans use the preferred (widest) vector species. Partition emulates compress (not available in JDK 17) by rearranging
+ * each vector with a precomputed shuffle per lane mask (lanes less than pivot first), so it is limited to 8 int / 4 long lanes
+ * (256 / 16 shuffles). It works in place: first and last vector are kept in registers, which leaves free space at both ends,
+ * and every next vector is read from the side with less free space -> a full vector store never overwrites unread elements.
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.vector;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorKernels {
+
+	// species of scans (widest supported by hardware)
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+	// species of partition (at most 8 int / 4 long lanes -> one shuffle per lane mask)
+	private static final VectorSpecies<Integer> PARTITION_INTS = INTS.length() >= 8 ? IntVector.SPECIES_256 : IntVector.SPECIES_128;
+	private static final VectorSpecies<Long> PARTITION_LONGS = LONGS.length() >= 4 ? LongVector.SPECIES_256 : LongVector.SPECIES_128;
+
+	// minimum range size partitioned by vectors (smaller ranges are faster with scalar loop)
+	private static final int PARTITION_THRESHOLD = 512;
+
+	// shuffle for each lane mask which moves masked lanes first (both groups keep lane order)
+	private static final VectorShuffle<Integer>[] INT_COMPRESS = compressShuffles(PARTITION_INTS);
+	private static final VectorShuffle<Long>[] LONG_COMPRESS = compressShuffles(PARTITION_LONGS);
+
+	// lane i holds 1 << i -> blend by compare mask and OR reduction give mask bits (VectorMask.toLong is not intrinsified by JDK 17)
+	private static final IntVector INT_ZERO = IntVector.zero(PARTITION_INTS);
+	private static final IntVector INT_BITS = IntVector.broadcast(PARTITION_INTS, 1).lanewise(VectorOperators.LSHL, INT_ZERO.addIndex(1));
+	private static final LongVector LONG_ZERO = LongVector.zero(PARTITION_LONGS);
+	private static final LongVector LONG_BITS = LongVector.broadcast(PARTITION_LONGS, 1).lanewise(VectorOperators.LSHL, LONG_ZERO.addIndex(1));
+
+	private VectorKernels() {
+	}
+
+	/** @return true if hardware supports vectors of at least 128 bits (otherwise scalar loops are faster). */
+	static boolean isSupported() {
+		return INTS.vectorBitSize() >= 128 && LONGS.vectorBitSize() >= 128;
+	}
+
+	static int max(int[] input, int from, int to) {
+		final int lanes = INTS.length();
+		int i = from;
+		int bound = from + INTS.loopBound(to - from);
+		IntVector max = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+		for (; i < bound; i += lanes) {
+			max = max.max(IntVector.fromArray(INTS, input, i));
+		}
+		return Math.max(max.reduceLanes(VectorOperators.MAX), VectorOps.scalarMax(input, i, to));
+	}
+
+	static long max(long[] input, int from, int to) {
+		final int lanes = LONGS.length();
+		int i = from;
+		int bound = from + LONGS.loopBound(to - from);
+		LongVector max = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+		for (; i < bound; i += lanes) {
+			max = max.max(LongVector.fromArray(LONGS, input, i));
+		}
+		return Math.max(max.reduceLanes(VectorOperators.MAX), VectorOps.scalarMax(input, i, to));
+	}
+
+	static int indexOfGreater(int[] input, int from, int to, int threshold) {
+		final int lanes = INTS.length();
+		int i = from;
+		int bound = from + INTS.loopBound(to - from);
+		for (; i < bound; i += lanes) {
+			VectorMask<Integer> greater = IntVector.fromArray(INTS, input, i).compare(VectorOperators.GT, threshold);
+			if (greater.anyTrue()) return i + greater.firstTrue();
+		}
+		return VectorOps.scalarIndexOfGreater(input, i, to, threshold);
+	}
+
+	static int indexOfGreater(long[] input, int from, int to, long threshold) {
+		final int lanes = LONGS.length();
+		int i = from;
+		int bound = from + LONGS.loopBound(to - from);
+		for (; i < bound; i += lanes) {
+			VectorMask<Long> greater = LongVector.fromArray(LONGS, input, i).compare(VectorOperators.GT, threshold);
+			if (greater.anyTrue()) return i + greater.firstTrue();
+		}
+		return VectorOps.scalarIndexOfGreater(input, i, to, threshold);
+	}
+
+	static int countLess(int[] input, int from, int to, int key) {
+		final int lanes = INTS.length();
+		int i = from;
+		int bound = from + INTS.loopBound(to - from);
+		int count = 0;
+		for (; i < bound; i += lanes) {
+			count += IntVector.fromArray(INTS, input, i).compare(VectorOperators.LT, key).trueCount();
+		}
+		return count + VectorOps.scalarCountLess(input, i, to, key);
+	}
+
+	static int countLess(long[] input, int from, int to, long key) {
+		final int lanes = LONGS.length();
+		int i = from;
+		int bound = from + LONGS.loopBound(to - from);
+		int count = 0;
+		for (; i < bound; i += lanes) {
+			count += LongVector.fromArray(LONGS, input, i).compare(VectorOperators.LT, key).trueCount();
+		}
+		return count + VectorOps.scalarCountLess(input, i, to, key);
+	}
+
+	static int partitionLess(int[] input, int from, int to, int pivot) {
+		final VectorSpecies<Integer> species = PARTITION_INTS;
+		final int lanes = species.length();
+
+		// too small to pay off setup and scalar tail
+		if (to - from < PARTITION_THRESHOLD) return VectorOps.scalarPartitionLess(input, from, to, pivot);
+
+		// [from, left> holds elements less than pivot, [right, to> the others, [read, unread> is not read yet
+		IntVector first = IntVector.fromArray(species, input, from);
+		IntVector last = IntVector.fromArray(species, input, to - lanes);
+		int left = from, right = to, read = from + lanes, unread = to - lanes;
+
+		while (unread - read >= lanes) {
+			// read from side with less free space -> afterwards both sides have at least one vector of free space
+			IntVector vector;
+			if (read - left <= right - unread) {
+				vector = IntVector.fromArray(species, input, read);
+				read += lanes;
+			}
+			else {
+				unread -= lanes;
+				vector = IntVector.fromArray(species, input, unread);
+			}
+
+			// less lanes first, then the others -> store whole vector at both ends (extra lanes land in free space)
+			int bits = INT_ZERO.blend(INT_BITS, vector.compare(VectorOperators.LT, pivot)).reduceLanes(VectorOperators.OR);
+			int count = Integer.bitCount(bits);
+			IntVector packed = vector.rearrange(INT_COMPRESS[bits]);
+			packed.intoArray(input, left);
+			packed.intoArray(input, right - lanes);
+			left += count;
+			right -= lanes - count;
+		}
+
+		// [left, right> is now a single free range of exactly 2 * lanes + unread - read elements -> move remaining elements
+		// to its start, store both kept vectors behind them and partition these at most 3 * lanes elements by scalar loop
+		// (no spill buffer -> no allocation, masked loads / stores are not intrinsified by JDK 17)
+		System.arraycopy(input, read, input, left, unread - read);
+		int kept = left + unread - read;
+		first.intoArray(input, kept);
+		last.intoArray(input, kept + lanes);
+		assert kept + 2 * lanes == right;
+
+		return left - from + VectorOps.scalarPartitionLess(input, left, right, pivot);
+	}
+
+	static int partitionLess(long[] input, int from, int to, long pivot) {
+		final VectorSpecies<Long> species = PARTITION_LONGS;
+		final int lanes = species.length();
+
+		// too small to pay off setup and scalar tail
+		if (to - from < PARTITION_THRESHOLD) return VectorOps.scalarPartitionLess(input, from, to, pivot);
+
+		// [from, left> holds elements less than pivot, [right, to> the others, [read, unread> is not read yet
+		LongVector first = LongVector.fromArray(species, input, from);
+		LongVector last = LongVector.fromArray(species, input, to - lanes);
+		int left = from, right = to, read = from + lanes, unread = to - lanes;
+
+		while (unread - read >= lanes) {
+			// read from side with less free space -> afterwards both sides have at least one vector of free space
+			LongVector vector;
+			if (read - left <= right - unread) {
+				vector = LongVector.fromArray(species, input, read);
+				read += lanes;
+			}
+			else {
+				unread -= lanes;
+				vector = LongVector.fromArray(species, input, unread);
+			}
+
+			// less lanes first, then the others -> store whole vector at both ends (extra lanes land in free space)
+			int bits = (int) LONG_ZERO.blend(LONG_BITS, vector.compare(VectorOperators.LT, pivot)).reduceLanes(VectorOperators.OR);
+			int count = Integer.bitCount(bits);
+			LongVector packed = vector.rearrange(LONG_COMPRESS[bits]);
+			packed.intoArray(input, left);
+			packed.intoArray(input, right - lanes);
+			left += count;
+			right -= lanes - count;
+		}
+
+		// [left, right> is now a single free range of exactly 2 * lanes + unread - read elements -> move remaining elements
+		// to its start, store both kept vectors behind them and partition these at most 3 * lanes elements by scalar loop
+		// (no spill buffer -> no allocation, masked loads / stores are not intrinsified by JDK 17)
+		System.arraycopy(input, read, input, left, unread - read);
+		int kept = left + unread - read;
+		first.intoArray(input, kept);
+		last.intoArray(input, kept + lanes);
+		assert kept + 2 * lanes == right;
+
+		return left - from + VectorOps.scalarPartitionLess(input, left, right, pivot);
+	}
+
+	/** Builds shuffles which move masked lanes first (for every lane mask).
+	  * @param species vector species (at most 8 lanes).
+	  * @return shuffles indexed by lane mask bits.
+	  */
+	@SuppressWarnings("unchecked")
+	private static <E> VectorShuffle<E>[] compressShuffles(VectorSpecies<E> species) {
+		final int lanes = species.length();
+		VectorShuffle<E>[] shuffles = (VectorShuffle<E>[]) new VectorShuffle<?>[1 << lanes];
+		int[] order = new int[lanes];
+		for (int mask = 0; mask < shuffles.length; mask++) {
+			int next = 0;
+			for (int lane = 0; lane < lanes; lane++) {
+				if ((mask & (1 << lane)) != 0) order[next++] = lane;
+			}
+			for (int lane = 0; lane < lanes; lane++) {
+				if ((mask & (1 << lane)) == 0) order[next++] = lane;
+			}
+			shuffles[mask] = VectorShuffle.fromArray(species, order, 0);
+		}
+		return shuffles;
+	}
+}
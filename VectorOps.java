@@ -0,0 +1,242 @@
+/**
+ * This file contains SIMD kernels for primitive int / long arrays (partition, block search, max and threshold scans)
+ * used by inner loops of sorting, selection and searching algorithms.
+ * Kernels run on the Vector API (jdk.incubator.vector) when the module is present (java --add-modules jdk.incubator.vector)
+ * and fall back to equivalent scalar loops otherwise. The switch is a static final constant, so the branch not taken
+ * is removed by the JIT compiler. Vector kernels can also be switched off with -Dcom.mgazdovic.algo.vector=false.
+ * With assertions enabled (-ea) every vector result is checked against the scalar one.
+ *
+ * Time complexity: 	O(n) each kernel (about n / lanes vector operations)
+ * Space complexity: 	O(1)
+ * 		n -> size of scanned / partitioned range
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.vector;
+
+public final class VectorOps {
+
+	// true if Vector API kernels are used (module present, hardware vectors available, not switched off)
+	public static final boolean ENABLED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+			&& !"false".equals(System.getProperty("com.mgazdovic.algo.vector"))
+			&& VectorKernels.isSupported();
+
+	private VectorOps() {
+	}
+
+	/** Finds maximum element within range [from, to>.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return maximum element (Integer.MIN_VALUE if range is empty).
+	  */
+	public static int max(int[] input, int from, int to) {
+		if (!ENABLED) return scalarMax(input, from, to);
+		int max = VectorKernels.max(input, from, to);
+		assert max == scalarMax(input, from, to);
+		return max;
+	}
+
+	/** Finds maximum element within range [from, to>.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @return maximum element (Long.MIN_VALUE if range is empty).
+	  */
+	public static long max(long[] input, int from, int to) {
+		if (!ENABLED) return scalarMax(input, from, to);
+		long max = VectorKernels.max(input, from, to);
+		assert max == scalarMax(input, from, to);
+		return max;
+	}
+
+	/** Finds first element within range [from, to> which is greater than threshold.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param threshold compared value.
+	  * @return index of first element greater than threshold (to if there is none).
+	  */
+	public static int indexOfGreater(int[] input, int from, int to, int threshold) {
+		if (!ENABLED) return scalarIndexOfGreater(input, from, to, threshold);
+		int index = VectorKernels.indexOfGreater(input, from, to, threshold);
+		assert index == scalarIndexOfGreater(input, from, to, threshold);
+		return index;
+	}
+
+	/** Finds first element within range [from, to> which is greater than threshold.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param threshold compared value.
+	  * @return index of first element greater than threshold (to if there is none).
+	  */
+	public static int indexOfGreater(long[] input, int from, int to, long threshold) {
+		if (!ENABLED) return scalarIndexOfGreater(input, from, to, threshold);
+		int index = VectorKernels.indexOfGreater(input, from, to, threshold);
+		assert index == scalarIndexOfGreater(input, from, to, threshold);
+		return index;
+	}
+
+	/** Counts elements within range [from, to> which are less than key (whole block compared at once).
+	  * For a sorted range this is the lower bound of key relative to from.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param key compared value.
+	  * @return number of elements less than key.
+	  */
+	public static int countLess(int[] input, int from, int to, int key) {
+		if (!ENABLED) return scalarCountLess(input, from, to, key);
+		int count = VectorKernels.countLess(input, from, to, key);
+		assert count == scalarCountLess(input, from, to, key);
+		return count;
+	}
+
+	/** Counts elements within range [from, to> which are less than key (whole block compared at once).
+	  * For a sorted range this is the lower bound of key relative to from.
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param key compared value.
+	  * @return number of elements less than key.
+	  */
+	public static int countLess(long[] input, int from, int to, long key) {
+		if (!ENABLED) return scalarCountLess(input, from, to, key);
+		int count = VectorKernels.countLess(input, from, to, key);
+		assert count == scalarCountLess(input, from, to, key);
+		return count;
+	}
+
+	/** Partitions range [from, to> so that elements less than pivot come first (order within parts is not preserved).
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param pivot value which splits the range.
+	  * @return number of elements less than pivot (they end up in [from, from + returned>).
+	  */
+	public static int partitionLess(int[] input, int from, int to, int pivot) {
+		int less = ENABLED ? VectorKernels.partitionLess(input, from, to, pivot) : scalarPartitionLess(input, from, to, pivot);
+		assert isPartitioned(input, from, to, from + less, pivot);
+		return less;
+	}
+
+	/** Partitions range [from, to> so that elements less than pivot come first (order within parts is not preserved).
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param pivot value which splits the range.
+	  * @return number of elements less than pivot (they end up in [from, from + returned>).
+	  */
+	public static int partitionLess(long[] input, int from, int to, long pivot) {
+		int less = ENABLED ? VectorKernels.partitionLess(input, from, to, pivot) : scalarPartitionLess(input, from, to, pivot);
+		assert isPartitioned(input, from, to, from + less, pivot);
+		return less;
+	}
+
+	// scalar kernels (fallback, reference for assertions, tails of vector kernels)
+
+	static int scalarMax(int[] input, int from, int to) {
+		int max = Integer.MIN_VALUE;
+		for (int i = from; i < to; i++) {
+			max = Math.max(max, input[i]);
+		}
+		return max;
+	}
+
+	static long scalarMax(long[] input, int from, int to) {
+		long max = Long.MIN_VALUE;
+		for (int i = from; i < to; i++) {
+			max = Math.max(max, input[i]);
+		}
+		return max;
+	}
+
+	static int scalarIndexOfGreater(int[] input, int from, int to, int threshold) {
+		for (int i = from; i < to; i++) {
+			if (input[i] > threshold) return i;
+		}
+		return to;
+	}
+
+	static int scalarIndexOfGreater(long[] input, int from, int to, long threshold) {
+		for (int i = from; i < to; i++) {
+			if (input[i] > threshold) return i;
+		}
+		return to;
+	}
+
+	static int scalarCountLess(int[] input, int from, int to, int key) {
+		// branchless count
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			count += input[i] < key ? 1 : 0;
+		}
+		return count;
+	}
+
+	static int scalarCountLess(long[] input, int from, int to, long key) {
+		// branchless count
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			count += input[i] < key ? 1 : 0;
+		}
+		return count;
+	}
+
+	static int scalarPartitionLess(int[] input, int from, int to, int pivot) {
+		int partitionIndex = from;
+		for (int i = from; i < to; i++) {
+			if (input[i] < pivot) {
+				int temp = input[i];
+				input[i] = input[partitionIndex];
+				input[partitionIndex++] = temp;
+			}
+		}
+		return partitionIndex - from;
+	}
+
+	static int scalarPartitionLess(long[] input, int from, int to, long pivot) {
+		int partitionIndex = from;
+		for (int i = from; i < to; i++) {
+			if (input[i] < pivot) {
+				long temp = input[i];
+				input[i] = input[partitionIndex];
+				input[partitionIndex++] = temp;
+			}
+		}
+		return partitionIndex - from;
+	}
+
+	/** Method to check if range [from, to> is partitioned at split index (less than pivot before, not less after).
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param split first index of elements not less than pivot.
+	  * @param pivot value which splits the range.
+	  * @return true if range is partitioned; false otherwise.
+	  */
+	private static boolean isPartitioned(int[] input, int from, int to, int split, int pivot) {
+		for (int i = from; i < to; i++) {
+			if ((input[i] < pivot) != (i < split)) return false;
+		}
+		return true;
+	}
+
+	/** Method to check if range [from, to> is partitioned at split index (less than pivot before, not less after).
+	  * @param input array containing the range.
+	  * @param from starting index (inclusive).
+	  * @param to ending index (exclusive).
+	  * @param split first index of elements not less than pivot.
+	  * @param pivot value which splits the range.
+	  * @return true if range is partitioned; false otherwise.
+	  */
+	private static boolean isPartitioned(long[] input, int from, int to, int split, long pivot) {
+		for (int i = from; i < to; i++) {
+			if ((input[i] < pivot) != (i < split)) return false;
+		}
+		return true;
+	}
+}
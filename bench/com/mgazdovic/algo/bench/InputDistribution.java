@@ -0,0 +1,62 @@
+/**
+ * This file contains input distributions shared by the benchmarks.
+ * Every distribution is generated from a fixed seed, so all benchmarks (and JDK baselines) see the same input.
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.SplittableRandom;
+
+public enum InputDistribution {
+
+	// uniformly random values
+	RANDOM,
+	// already sorted (ascending)
+	SORTED,
+	// sorted descending
+	REVERSE,
+	// random values out of a small set (many duplicates)
+	FEW_UNIQUE,
+	// ascending first half, descending second half
+	ORGAN_PIPE;
+
+	// seed of every generated input
+	private static final long SEED = 42;
+	// number of distinct values in FEW_UNIQUE input
+	private static final int FEW_UNIQUE_VALUES = 16;
+
+	/** Generates int input of given size.
+	  * @param size number of elements.
+	  * @return generated input.
+	  */
+	public int[] ints(int size) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int[] input = new int[size];
+		for (int i = 0; i < size; i++) {
+			switch (this) {
+				case RANDOM: input[i] = random.nextInt(); break;
+				case SORTED: input[i] = i; break;
+				case REVERSE: input[i] = size - i; break;
+				case FEW_UNIQUE: input[i] = random.nextInt(FEW_UNIQUE_VALUES); break;
+				default: input[i] = i < size / 2 ? i : size - i; break;
+			}
+		}
+		return input;
+	}
+
+	/** Generates boxed input of given size (same values as ints).
+	  * @param size number of elements.
+	  * @return generated input.
+	  */
+	public Integer[] boxed(int size) {
+		int[] values = ints(size);
+		Integer[] input = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			input[i] = values[i];
+		}
+		return input;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * This file contains benchmarks of longest increasing subsequence solvers.
+ * Quadratic dynamic programming is benchmarked separately on small sizes only (LisQuadraticBenchmark).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.dp.LongestIncreasingSubseq;
+import com.mgazdovic.algo.dp.LongestIncreasingSubseqTracker;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LisBenchmark {
+
+	@Param({"1000", "100000", "10000000", "100000000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input (not modified)
+	int[] input;
+
+	@Setup
+	public void setup() {
+		input = distribution.ints(size);
+	}
+
+	@Benchmark
+	public int patienceSort() {
+		return LongestIncreasingSubseq.solve(input, true);
+	}
+
+	@Benchmark
+	public int[] patienceSortIndexes() {
+		return LongestIncreasingSubseq.findIndexes(input, true);
+	}
+
+	@Benchmark
+	public int tracker() {
+		LongestIncreasingSubseqTracker tracker = new LongestIncreasingSubseqTracker(true);
+		for (int value : input) {
+			tracker.append(value);
+		}
+		return tracker.length();
+	}
+}
@@ -0,0 +1,53 @@
+/**
+ * This file contains benchmarks of quadratic dynamic programming longest increasing subsequence solver.
+ * Sizes stop at 10^4 (10^5 elements take minutes).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.dp.LongestIncreasingSubseq;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LisQuadraticBenchmark {
+
+	@Param({"1000", "10000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input (not modified)
+	int[] input;
+
+	@Setup
+	public void setup() {
+		input = distribution.ints(size);
+	}
+
+	@Benchmark
+	public int dynamicProgramming() {
+		return LongestIncreasingSubseq.solve(input);
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * This file contains benchmarks of maximum grid collect solvers on square grids of 10^3 to 10^8 cells.
+ * Each grid row is a rotation of one row of given distribution (values reduced below 1000 -> int solve never overflows).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.dp.MaxCollect;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MaxCollectBenchmark {
+
+	// grid side -> 10^3, 10^6 and 10^8 cells
+	@Param({"32", "1000", "10000"})
+	int side;
+
+	@Param
+	InputDistribution distribution;
+
+	// grid of collect values
+	int[][] grid;
+
+	@Setup
+	public void setup() {
+		int[] values = distribution.ints(side);
+		grid = new int[side][side];
+		for (int r = 0; r < side; r++) {
+			for (int c = 0; c < side; c++) {
+				grid[r][c] = Math.floorMod(values[(r + c) % side], 1000);
+			}
+		}
+	}
+
+	@Benchmark
+	public int solve() {
+		return MaxCollect.solve(grid);
+	}
+
+	@Benchmark
+	public long solveLong() {
+		return MaxCollect.solveLong(grid);
+	}
+
+	@Benchmark
+	public long parallelSolve() {
+		return MaxCollect.parallelSolve(grid);
+	}
+
+	@Benchmark
+	public char[] solvePath() {
+		return MaxCollect.solvePath(grid);
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * This file contains benchmarks of minimum coins solvers for a canonical and a non-canonical coin system.
+ * Solver query benchmarks answer a batch of random totals against a prebuilt solver (score per single query).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.dp.MinCoins;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MinCoinsBenchmark {
+
+	// number of totals answered by each query invocation
+	private static final int QUERIES = 1024;
+
+	// Coin systems -> greedy is optimal for CANONICAL only.
+	public enum CoinSystem {
+		CANONICAL(1, 2, 5, 10, 20, 50, 100, 200),
+		NON_CANONICAL(1, 7, 10, 23, 37, 91);
+
+		final int[] coins;
+
+		CoinSystem(int... coins) {
+			this.coins = coins;
+		}
+	}
+
+	@Param({"1000", "100000", "10000000", "100000000"})
+	int total;
+
+	@Param
+	CoinSystem system;
+
+	// solver with table prebuilt up to total
+	MinCoins solver;
+	// totals answered by query benchmarks
+	int[] totals;
+
+	@Setup
+	public void setup() {
+		solver = new MinCoins(system.coins, total);
+		SplittableRandom random = new SplittableRandom(7);
+		totals = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			totals[i] = 1 + random.nextInt(total);
+		}
+	}
+
+	@Benchmark
+	public int solve() {
+		return MinCoins.solve(system.coins, total);
+	}
+
+	@Benchmark
+	public int solveBounded() {
+		return MinCoins.solveBounded(system.coins, total);
+	}
+
+	@Benchmark
+	public MinCoins buildSolver() {
+		return new MinCoins(system.coins, total);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int solverQuery() {
+		int sum = 0;
+		for (int t : totals) {
+			sum += solver.minCoins(t);
+		}
+		return sum;
+	}
+}
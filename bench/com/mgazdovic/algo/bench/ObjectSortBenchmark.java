@@ -0,0 +1,100 @@
+/**
+ * This file contains benchmarks of object array sorting (natural order and comparator) against JDK baselines.
+ * Sizes stop at 10^7 (10^8 boxed elements do not fit into a common heap).
+ * Plain quick sort is quadratic on many equal keys -> QuickSortQuadraticBenchmark (capped sizes).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.sorting.MergeSortBottomUp;
+import com.mgazdovic.algo.sorting.QuickSortIterative;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ObjectSortBenchmark {
+
+	// reverse order -> exercises comparator overloads
+	private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+	@Param({"1000", "100000", "10000000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input
+	Integer[] input;
+	// sorted in place by each invocation
+	Integer[] work;
+
+	@Setup
+	public void setup() {
+		input = distribution.boxed(size);
+		work = new Integer[size];
+	}
+
+	@Benchmark
+	public Integer[] introSortComparator() {
+		System.arraycopy(input, 0, work, 0, size);
+		QuickSortIterative.introSort(work, DESCENDING);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] mergeSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		MergeSortBottomUp.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] mergeSortComparator() {
+		System.arraycopy(input, 0, work, 0, size);
+		MergeSortBottomUp.sort(work, DESCENDING);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] parallelMergeSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		MergeSortBottomUp.parallelSort(work);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] jdkSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		Arrays.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] jdkParallelSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		Arrays.parallelSort(work);
+		return work;
+	}
+}
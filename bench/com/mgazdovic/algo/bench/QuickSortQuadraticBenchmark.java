@@ -0,0 +1,80 @@
+/**
+ * This file contains benchmarks of quick sort (int and boxed) and quick select with Lomuto partition (QuickSortIterative.partition).
+ * Strict less than comparison moves all keys equal to pivot to one side -> quadratic on FEW_UNIQUE input,
+ * so sizes stop at 10^5 (10^6 elements take minutes, 10^7 hours). Other sorts and selections -> SortBenchmark, ObjectSortBenchmark, SelectBenchmark.
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.searching.KthLargest;
+import com.mgazdovic.algo.sorting.QuickSortIterative;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QuickSortQuadraticBenchmark {
+
+	@Param({"1000", "100000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input
+	int[] input;
+	Integer[] boxedInput;
+	// reordered by each invocation
+	int[] work;
+	Integer[] boxedWork;
+	// median rank
+	int k;
+
+	@Setup
+	public void setup() {
+		input = distribution.ints(size);
+		work = new int[size];
+		boxedInput = distribution.boxed(size);
+		boxedWork = new Integer[size];
+		k = size / 2;
+	}
+
+	@Benchmark
+	public int[] quickSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		QuickSortIterative.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public Integer[] quickSortBoxed() {
+		System.arraycopy(boxedInput, 0, boxedWork, 0, size);
+		QuickSortIterative.sort(boxedWork);
+		return boxedWork;
+	}
+
+	@Benchmark
+	public int quickSelect() {
+		System.arraycopy(input, 0, work, 0, size);
+		return KthLargest.quickSelect(work, k);
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * This file contains benchmarks of searching in a sorted int array against JDK baseline (Arrays.binarySearch).
+ * Input of given distribution is sorted once; every invocation looks up the same batch of random keys
+ * (about half of them present), and scores are reported per single lookup.
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.searching.BinarySearch;
+import com.mgazdovic.algo.searching.StaticBTreeIndex;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+	// number of keys looked up by each invocation
+	private static final int QUERIES = 1024;
+
+	@Param({"1000", "100000", "10000000", "100000000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// sorted input
+	int[] items;
+	// looked up keys
+	int[] keys;
+	// results of batched lookup
+	int[] result;
+	// static B+-tree over items
+	StaticBTreeIndex.OfInt index;
+
+	@Setup
+	public void setup() {
+		items = distribution.ints(size);
+		Arrays.sort(items);
+		SplittableRandom random = new SplittableRandom(7);
+		keys = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			keys[i] = random.nextBoolean() ? items[random.nextInt(size)] : random.nextInt();
+		}
+		result = new int[QUERIES];
+		index = StaticBTreeIndex.of(items);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int find() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += BinarySearch.find(items, key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int lowerBound() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += BinarySearch.lowerBound(items, key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int[] findAll() {
+		BinarySearch.findAll(items, keys, result);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int staticBTreeFind() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += index.find(key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int jdkBinarySearch() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += Arrays.binarySearch(items, key);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * This file contains benchmarks of k-th largest element selection (k = median) against full sort baseline (Arrays.sort).
+ * Each invocation copies the prepared input into a work array first (selection reorders its input).
+ * Plain quick select is quadratic on many equal keys -> QuickSortQuadraticBenchmark (capped sizes).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.searching.KthLargest;
+import com.mgazdovic.algo.searching.TopK;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SelectBenchmark {
+
+	// k for heap based selection (heap of k = median elements is a sort in disguise)
+	private static final int SMALL_K = 100;
+
+	@Param({"1000", "100000", "10000000", "100000000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input
+	int[] input;
+	// reordered by each invocation
+	int[] work;
+	// median rank
+	int k;
+
+	@Setup
+	public void setup() {
+		input = distribution.ints(size);
+		work = new int[size];
+		k = size / 2;
+	}
+
+	@Benchmark
+	public int floydRivestSelect() {
+		System.arraycopy(input, 0, work, 0, size);
+		return KthLargest.floydRivestSelect(work, k);
+	}
+
+	@Benchmark
+	public int parallelQuickSelect() {
+		System.arraycopy(input, 0, work, 0, size);
+		return KthLargest.parallelQuickSelect(work, k);
+	}
+
+	@Benchmark
+	public int minHeapSelectSmallK() {
+		System.arraycopy(input, 0, work, 0, size);
+		return KthLargest.minHeapSelect(work, SMALL_K);
+	}
+
+	@Benchmark
+	public int topKSmallK() {
+		TopK.OfInt topK = TopK.ofInt(SMALL_K);
+		topK.offerAll(input);
+		return topK.kth();
+	}
+
+	@Benchmark
+	public int jdkSortSelect() {
+		System.arraycopy(input, 0, work, 0, size);
+		Arrays.sort(work);
+		return work[size - k];
+	}
+}
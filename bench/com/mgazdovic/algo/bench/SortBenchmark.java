@@ -0,0 +1,114 @@
+/**
+ * This file contains benchmarks of int array sorting against JDK baselines (Arrays.sort, Arrays.parallelSort).
+ * Each invocation copies the prepared input into a work array first (same cost for every benchmark).
+ * Plain quick sort is quadratic on many equal keys -> QuickSortQuadraticBenchmark (capped sizes).
+ *
+ * @author Mislav.Gazdovic, mislav.gazdovic@gmail.com
+ *
+ */
+
+package com.mgazdovic.algo.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mgazdovic.algo.sorting.MergeSortBottomUp;
+import com.mgazdovic.algo.sorting.QuickSortIterative;
+import com.mgazdovic.algo.sorting.RadixSort;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SortBenchmark {
+
+	@Param({"1000", "100000", "10000000", "100000000"})
+	int size;
+
+	@Param
+	InputDistribution distribution;
+
+	// prepared input
+	int[] input;
+	// sorted in place by each invocation
+	int[] work;
+	// scratch buffer reused by natural merge sort
+	int[] buffer;
+
+	@Setup
+	public void setup() {
+		input = distribution.ints(size);
+		work = new int[size];
+		buffer = new int[size];
+	}
+
+	@Benchmark
+	public int[] introSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		QuickSortIterative.introSort(work);
+		return work;
+	}
+
+	@Benchmark
+	public int[] mergeSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		MergeSortBottomUp.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public int[] naturalMergeSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		MergeSortBottomUp.sort(work, buffer);
+		return work;
+	}
+
+	@Benchmark
+	public int[] radixSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		RadixSort.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public int[] radixSort11() {
+		System.arraycopy(input, 0, work, 0, size);
+		RadixSort.sort(work, 11);
+		return work;
+	}
+
+	@Benchmark
+	public int[] parallelRadixSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		RadixSort.parallelSort(work);
+		return work;
+	}
+
+	@Benchmark
+	public int[] jdkSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		Arrays.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public int[] jdkParallelSort() {
+		System.arraycopy(input, 0, work, 0, size);
+		Arrays.parallelSort(work);
+		return work;
+	}
+}